@@ -0,0 +1,295 @@
+/**
+ * Weighted A* and anytime repairing A* (ARA*), with an optional deadline.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Weighted A* orders boards by g + w*h. It trusts the estimate more than
+ * plain A* does, so it reaches the goal after far fewer expansions, at the
+ * price of a solution up to w times longer than the shortest.</p>
+ *
+ * <p>ARA* runs weighted A* with a falling weight. A board whose g improves
+ * after it was expanded in the current pass is parked instead of reopened,
+ * and the parked boards rejoin the open list at the start of the next pass,
+ * so each pass reuses the work of the last. After every pass the solution
+ * is at most min(w, g(goal) / lowest f of any open or parked board) times
+ * the shortest, and the search ends when that bound reaches 1 or the
+ * deadline passes. A pass cut short by the deadline still has the second
+ * half of that bound.</p>
+ *
+ * <p>Priorities are kept as integers in eighths, so the weight is rounded to
+ * the nearest 1/8.</p>
+ */
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+public class AraStar
+{
+	public static final int SCALE= 8;    // priority units per move
+	private static final int STEP= 4;    // weight drop between passes, in eighths
+	private static final int CHECK= 1023;// expansions between looks at the clock
+
+	private Puzzle puzzle;     // layout and goal of the boards solved
+	private TieBreak tie;      // order of boards with equal priority
+	private float loadFactor;  // for the reached and closed tables
+	private long deadline;     // wall-clock millis to stop at, 0 for none
+	private BooleanSupplier stop= () -> false; // asked to give up early
+	private boolean expired;   // the deadline passed or stop said so
+	private NodeArena nodes;   // every node generated
+	private LongIntMap best;   // state -> node with the lowest g so far
+	private IntBucketQueue open;
+	private LongHashSet closed;// states expanded in this pass
+	private int [] parked;     // nodes improved after they were expanded
+	private int parkedCount;
+	private double bound;      // suboptimality of the last solution
+	private long states;       // boards generated by the last search
+	private long duplicates;   // of which were already reached as cheaply
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param puzzle puzzle the start boards belong to
+	 * @param tie how the open list orders boards of equal priority
+	 * @param loadFactor how full the tables get before growing
+	 */
+	public AraStar(Puzzle puzzle, TieBreak tie, float loadFactor)
+	{
+		this.puzzle= puzzle;
+		this.tie= tie;
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Give the search a way to be stopped early.
+	 *
+	 * @param stop checked every thousand or so expansions; true means give up
+	 */
+	public void setStop(BooleanSupplier stop)
+	{
+		this.stop= stop;
+	}
+
+
+	/**
+	 * Search for a solution within a factor of the shortest.
+	 *
+	 * @param start board to solve
+	 * @param weight w, at least 1; 1 makes this plain A*
+	 * @param anytime keep lowering w towards 1 after the first solution
+	 * @param deadline System.currentTimeMillis() to stop at, 0 for none
+	 * @return goal board linked back to start, or null if none was found
+	 */
+	public Board search(Board start, double weight, boolean anytime, long deadline)
+	{
+		int w= Math.max(SCALE,(int) Math.round(weight*SCALE));
+		long goal= puzzle.getGoal();
+
+		this.deadline= deadline;
+		expired= false;
+		nodes= new NodeArena(1<<16);
+		best= new LongIntMap(1<<16,loadFactor);
+		open= new IntBucketQueue(tie);
+		closed= new LongHashSet(1<<16,loadFactor);
+		parked= new int[64];
+		parkedCount= 0;
+		bound= Double.POSITIVE_INFINITY;
+		states= 0;
+		duplicates= 0;
+
+		long state= start.getState();
+		int root= nodes.add(state,NodeArena.NO_PARENT,0,start.getCost(),puzzle.blankPosition(state),0);
+		best.put(state,root);
+		open.push(root,key(root,w),0);
+
+		while (true) {
+			improve(w);
+			int solution= best.get(goal,-1);
+			if (solution < 0)
+				return null;
+
+			// a pass cut short proves nothing about w, but the ratio always holds
+			int minf= expired ? lowestCost(w) : drain();
+			if (minf < nodes.g(solution))
+				bound= Math.min(bound,(double) nodes.g(solution)/minf);
+			else
+				bound= 1.0; // nothing left open could lead anywhere shorter
+			if (!expired)
+				bound= Math.min(bound,(double) w/SCALE);
+			bound= Math.max(1.0,bound);
+			if (expired || !anytime || bound <= 1)
+				break;
+			if (deadline!=0 && System.currentTimeMillis() >= deadline) {
+				expired= true;
+				break;
+			}
+
+			w= Math.max(SCALE,Math.min(w-STEP,(int) (bound*SCALE)));
+			closed= new LongHashSet(1<<16,loadFactor);
+			for (int j=0; j<parkedCount; j++)
+				open.push(parked[j],key(parked[j],w),nodes.g(parked[j]));
+			parkedCount= 0;
+		}
+		return start.replay(nodes.path(best.get(goal,-1),start.getDir()));
+	}
+
+
+	/**
+	 * How far from the shortest the last solution may be.
+	 *
+	 * @return factor of at least 1
+	 */
+	public double getBound()
+	{
+		return bound;
+	}
+
+
+	/**
+	 * Whether the last search stopped at its deadline or was told to stop.
+	 */
+	public boolean isExpired()
+	{
+		return expired;
+	}
+
+
+	/**
+	 * Boards generated by the last search.
+	 */
+	public long getStates()
+	{
+		return states;
+	}
+
+
+	/**
+	 * Generated boards dropped because they were already reached as cheaply.
+	 */
+	public long getDuplicates()
+	{
+		return duplicates;
+	}
+
+
+	/**
+	 * One pass of weighted A*: expand until no open board has a lower
+	 * priority than the goal.
+	 *
+	 * @param w weight in eighths
+	 */
+	private void improve(int w)
+	{
+		long goal= puzzle.getGoal();
+		long expansions= 0;
+
+		while (!open.isEmpty()) {
+			int reached= best.get(goal,-1);
+			if (reached >= 0 && key(reached,w) <= open.minCost())
+				return;
+			if ((++expansions & CHECK)==0 && (deadline!=0 && System.currentTimeMillis() >= deadline
+				|| stop.getAsBoolean())) {
+				expired= true;
+				return;
+			}
+
+			int curr= open.pop();
+			if (!live(curr))
+				continue; // reached more cheaply since it was queued
+			long state= nodes.state(curr);
+			closed.add(state);
+
+			int g= nodes.g(curr)+1;
+			int h= nodes.h(curr);
+			int bpos= nodes.blank(curr);
+			int last= nodes.parent(curr)==NodeArena.NO_PARENT ? -1 : nodes.move(curr);
+			for (int moves= puzzle.successors(bpos,last); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				int target= puzzle.target(bpos,move);
+
+				int tile= puzzle.tile(state,target);
+				long next= puzzle.slide(state,bpos,target);
+				states++;
+				int known= best.get(next,-1);
+				if (known >= 0 && nodes.g(known) <= g) {
+					duplicates++;
+					continue;
+				}
+
+				int child= nodes.add(next,curr,g,puzzle.update(next,h,tile,target,bpos),target,move);
+				best.put(next,child);
+				if (closed.contains(next))
+					park(child);
+				else
+					open.push(child,key(child,w),g);
+			}
+		}
+	}
+
+
+	/**
+	 * Move the live open boards to the parked ones.
+	 *
+	 * @return lowest f of any parked board, MAX_VALUE if there are none
+	 */
+	private int drain()
+	{
+		while (!open.isEmpty()) {
+			int i= open.pop();
+			if (live(i))
+				park(i);
+		}
+
+		int minf= Integer.MAX_VALUE, count= 0;
+		for (int j=0; j<parkedCount; j++)
+			if (live(parked[j])) {
+				parked[count++]= parked[j];
+				minf= Math.min(minf,nodes.f(parked[j]));
+			}
+		parkedCount= count;
+		return minf;
+	}
+
+
+	/**
+	 * Lower bound on the f of any open or parked board, without draining
+	 * the open list.
+	 *
+	 * <p>8g + w*h is at most w*f since w is at least 8 eighths, so no open
+	 * board has f below the lowest priority divided by w.</p>
+	 */
+	private int lowestCost(int w)
+	{
+		int minf= open.isEmpty() ? Integer.MAX_VALUE : (open.minCost()+w-1)/w;
+		for (int j=0; j<parkedCount; j++)
+			if (live(parked[j]))
+				minf= Math.min(minf,nodes.f(parked[j]));
+		return minf;
+	}
+
+
+	/**
+	 * Whether a node is still the cheapest way to its state.
+	 */
+	private boolean live(int i)
+	{
+		return best.get(nodes.state(i),-1)==i;
+	}
+
+
+	private void park(int i)
+	{
+		if (parkedCount==parked.length)
+			parked= Arrays.copyOf(parked,2*parkedCount);
+		parked[parkedCount++]= i;
+	}
+
+
+	/**
+	 * Priority g + w*h, in eighths of a move.
+	 */
+	private int key(int i, int w)
+	{
+		return SCALE*nodes.g(i) + w*nodes.h(i);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Solves every board in an input source concurrently.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>All boards are read up front and each gets its own Solver (see
+ * Solver.fork), so the searches share nothing but read-only tables. A fixed
+ * pool of worker threads runs them, and results are printed in input order
+ * as soon as each one and everything before it is done. A budget applies
+ * to each board on its own, so one that runs long frees its worker once
+ * the budget is spent.</p>
+ */
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchSolver
+{
+	private Solver reader; // reads boards and supplies the settings
+	private int threads;   // size of the worker pool
+	private Duration budget; // time allowed each board, or null for no limit
+
+	/**
+	 * Set up a batch.
+	 *
+	 * @param reader configured solver positioned before the first board
+	 * @param threads number of workers, or 0 for one per processor
+	 * @param budget wall-clock time allowed each board, or null for no limit
+	 */
+	public BatchSolver(Solver reader, int threads, Duration budget)
+	{
+		this.reader= reader;
+		this.threads= threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.budget= budget;
+	}
+
+
+	/**
+	 * Solve all remaining boards and print each result followed by totals.
+	 */
+	public void run() throws InterruptedException
+	{
+		ArrayList<Solver> solvers= new ArrayList<Solver>();
+		ArrayList<Future<SolveResult>> results= new ArrayList<Future<SolveResult>>();
+		ExecutorService pool= Executors.newFixedThreadPool(threads);
+		Timer wall= new Timer();
+		double busy= 0;
+
+		wall.start();
+		while (reader.nextBoard())
+			solvers.add(reader.fork());
+		try {
+			for (Solver solver : solvers)
+				results.add(pool.submit(() -> solver.solve(budget)));
+
+			for (int i=0; i<solvers.size(); i++) {
+				SolveResult result= null;
+				try {
+					result= results.get(i).get();
+				}
+				catch (ExecutionException e) {
+					System.out.println("Board "+(i+1)+" failed: "+e.getCause());
+				}
+				System.out.println(solvers.get(i));
+				if (result!=null && !result.isSolved())
+					System.out.println(result);
+				System.out.println("------------------------------------------------");
+				busy+= solvers.get(i).getTimer().seconds();
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		wall.stop();
+
+		System.out.printf("Batch: %d boards on %d threads in %s seconds (%1.3f seconds of solving)\n",
+			solvers.size(),threads,wall,busy);
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Fixed-size probabilistic set of longs (bit-state hashing, a Bloom filter).
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Each key sets k bits of one big bit array, and a key is taken to be
+ * present if all of its bits are set. Memory never grows however many
+ * keys are added, and nothing added is ever reported absent, but once the
+ * array fills up some keys never added are reported present (false
+ * positives). The chance of that is about the fraction of bits set, raised
+ * to the power k.</p>
+ *
+ * <p>The k bit positions come from two hashes of the key, h1 + i*h2 for i
+ * below k, which does as well as k independent hashes.</p>
+ */
+import java.util.Arrays;
+
+public class BitStateSet
+{
+	public static final int MAX_MEGABYTES= 8192; // largest bit array, so words fit an int index
+	private static final long SALT= 0x9e3779b97f4a7c15L; // makes the second hash differ from the first
+
+	private long [] words; // the bit array
+	private long bits;     // its length in bits
+	private int hashes;    // bits set per key (k)
+	private long set;      // bits that are 1
+	private long size;     // keys added that were not already present
+
+	/**
+	 * Create an empty set.
+	 *
+	 * @param megabytes size of the bit array, in units of 2^20 bytes
+	 * @param hashes bits to set for each key, at least 1
+	 */
+	public BitStateSet(int megabytes, int hashes)
+	{
+		if (megabytes < 1 || megabytes > MAX_MEGABYTES)
+			throw new IllegalArgumentException("bit-state set must be 1 to "+MAX_MEGABYTES+" MB");
+		if (hashes < 1)
+			throw new IllegalArgumentException("need at least one hash");
+		this.words= new long[megabytes<<17];
+		this.bits= 64L*words.length;
+		this.hashes= hashes;
+	}
+
+
+	/**
+	 * Add a key.
+	 *
+	 * @param key key to add
+	 * @return true if any of its bits was clear, so the key was certainly
+	 * not present
+	 */
+	public boolean add(long key)
+	{
+		long h1= Puzzle.mix(key), h2= Puzzle.mix(key ^ SALT) | 1;
+		boolean added= false;
+		for (int i=0; i<hashes; i++) {
+			long bit= Long.remainderUnsigned(h1+i*h2,bits);
+			long mask= 1L << bit;
+			int w= (int) (bit >>> 6);
+			if ((words[w] & mask)==0) {
+				words[w]|= mask;
+				set++;
+				added= true;
+			}
+		}
+		if (added)
+			size++;
+		return added;
+	}
+
+
+	/**
+	 * Check for a key.
+	 *
+	 * @param key key to look for
+	 * @return false if the key is certainly absent; true if it was added,
+	 * or is a false positive
+	 */
+	public boolean contains(long key)
+	{
+		long h1= Puzzle.mix(key), h2= Puzzle.mix(key ^ SALT) | 1;
+		for (int i=0; i<hashes; i++) {
+			long bit= Long.remainderUnsigned(h1+i*h2,bits);
+			if ((words[(int) (bit >>> 6)] & 1L << bit)==0)
+				return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Empty the set, keeping its bit array.
+	 */
+	public void clear()
+	{
+		Arrays.fill(words,0);
+		set= 0;
+		size= 0;
+	}
+
+
+	/**
+	 * Chance that a key never added is reported present, as things stand.
+	 *
+	 * @return (bits set / bits)^k
+	 */
+	public double falsePositiveRate()
+	{
+		return Math.pow((double) set/bits,hashes);
+	}
+
+
+	/**
+	 * Number of keys added, not counting those reported present already.
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return String.format("bit-state %dMB, k=%d: %d states, est. false positive rate %.2g",
+			words.length>>>17,hashes,size,falsePositiveRate());
+	}
+}
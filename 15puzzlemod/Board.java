@@ -5,16 +5,14 @@
  * @version 15 Feb 2016
  *
  */
-import java.util.Arrays;
-
 public class Board implements Comparable<Board>
 {
-	private int rows,cols; // board size in rows/cols
-	private char [] tiles; // the actual tiles and their locations
+	private Puzzle puzzle; // shared board size and goal
+	private long state;    // packed tiles, one nibble per cell
 	private char dir;      // direction prev used to get here
 	private int  bpos;     // position of blank element
 	private Board prev;    // pointer to previous state
-	private int	h;         // heuristic value (manhattan distance)
+	private int	h;         // heuristic value (see Puzzle.estimate)
 	private int	g;         // cost so far
 	protected int repeat;	 // Repeat of board state
 
@@ -31,36 +29,49 @@ public class Board implements Comparable<Board>
 	 */
 	public Board(char [] tiles, int rows, int cols)
 	{
-		this.rows= rows;
-		this.cols= cols;
-		this.tiles= tiles.clone();
-		this.bpos= new String(tiles).indexOf((char) rows*cols-1);
+		this(tiles,new Puzzle(rows,cols));
+	}
+
+
+	/**
+	 * Constructor based on starting tile positions and a shared puzzle.
+	 *
+	 * @param tiles an array of tile positions
+	 * @param puzzle dimensions and goal shared by all boards being solved
+	 */
+	public Board(char [] tiles, Puzzle puzzle)
+	{
+		this.puzzle= puzzle;
+		this.state= puzzle.pack(tiles);
+		this.bpos= puzzle.blankPosition(state);
 		this.dir= 'X';       // initially direction is not valid
 		this.prev= null;     // and no previous board
-		this.h= manhattan(); // use manhattan distance to estimate position
+		this.h= puzzle.estimate(state); // manhattan or pattern database
 		this.g= 0;           // no steps taken with a new board
 		this.repeat=0;
 	}
 
 
 	/**
-	 * Constructor based on starting tile positions and board dimensions.
+	 * Constructor based on a packed state reached from a previous board.
 	 *
+	 * @param puzzle dimensions and goal shared with previous board
 	 * @param lastBoard pointer to previous board
-	 * @param tiles array of tile positions
+	 * @param state packed tile positions
+	 * @param bpos position of the blank in state
+	 * @param h estimated distance of state from the goal
 	 * @param direction direction taken from previous board
 	 * @param steps total steps taken since start of board
 	 *
 	 */
-	public Board(Board lastBoard, char []tiles, char direction, int steps)
+	private Board(Puzzle puzzle, Board lastBoard, long state, int bpos, int h, char direction, int steps)
 	{
-		this.rows= lastBoard.rows;
-		this.cols= lastBoard.cols;
-		this.tiles= tiles.clone();
-		this.bpos= new String(tiles).indexOf((char) rows*cols-1);
+		this.puzzle= puzzle;
+		this.state= state;
+		this.bpos= bpos;
 		this.dir= direction;      
 		this.prev= lastBoard;     
-		this.h= manhattan(); // use manhattan distance to estimate position
+		this.h= h;           // worked out by movePiece from our parent's h
 		this.g= steps+1;           
 		this.repeat= 0;			 // no repeats with a new board
 	}
@@ -86,7 +97,7 @@ public class Board implements Comparable<Board>
 	 * Overriding hashcode
 	 */
 	public int hashCode(){
-		return Arrays.hashCode(this.tiles);
+		return (int) Puzzle.mix(this.state);
 	}
 
 	/**
@@ -100,29 +111,9 @@ public class Board implements Comparable<Board>
 
 		Board object = (Board) obj;
 
-		return Arrays.equals(this.tiles,object.tiles);
+		return this.state==object.state;
 	}
 
-	/**
-	 * Calculate classic manhattan distance for a board.
-	 *
-	 * @return manhattan distance
-	 *
-	 * <p>We calculate distance for all tiles and then subtract back out the
-	 * distance added by the blank tile.</p>
-	 */
-	private int manhattan()
-	{
-		int i,n,h= 0;
-		n= rows*cols;
-		for (i=0; i<n; i++)
-				h+= Math.abs(i/cols-tiles[i]/cols) + Math.abs(i%cols-tiles[i]%cols);
-		h-= (n-1)/cols-bpos/cols + (n-1)%cols-bpos%cols;
-
-		return h;
-	}
-
-
 	/**
 	 * Determine whether a move in the specified direction is possible.
 	 *
@@ -136,13 +127,19 @@ public class Board implements Comparable<Board>
 	 */
 	public boolean canMove(char trydir)
 	{
-		switch (trydir) {
-			case 'U': return dir!='D' && bpos-cols >= 0;
-			case 'D': return dir!='U' && bpos+cols < rows*cols;
-			case 'R': return dir!='L' && (bpos+1)%cols!=0; //(bpos+1)/rows==(bpos/rows);
-			case 'L': return dir!='R' && bpos%cols!=0; //bpos>0 && (bpos-1)/rows==(bpos/rows);
-			default: return false;
-		}
+		int move= Puzzle.MOVES.indexOf(trydir);
+		return move >= 0 && (legalMoves() & 1<<move)!=0;
+	}
+
+
+	/**
+	 * Every move canMove allows, at once.
+	 *
+	 * @return bit m set if the direction Puzzle.MOVES.charAt(m) is possible
+	 */
+	public int legalMoves()
+	{
+		return puzzle.successors(bpos,Puzzle.MOVES.indexOf(dir));
 	}
 
 	/**
@@ -151,41 +148,97 @@ public class Board implements Comparable<Board>
 	 * @param direction Directions possible: U, D. R, or L. 
 	 * @return Board new that links to previous. 
 	 *
+	 * <p>The new board shares our puzzle and only differs by the two
+	 * nibbles touched by the move, so no tile array is copied. Only the
+	 * moved tile changes distance, so h is our h plus that tile's delta.</p>
 	 */
 	
 	public Board movePiece(char direction, int steps){
-		Board newBoard;
-		char[]newtiles = this.tiles.clone();
-		char basetile = newtiles[bpos];
-		switch (direction){
-			case 'U': 
-					//swap "blank" with tile above.
-					newtiles[bpos]=newtiles[bpos-cols];
-					newtiles[bpos-cols]=basetile;
-				break;
-
-			case 'D': 
-					//swap "blank" with tile below.
-					newtiles[bpos]=newtiles[bpos+cols];
-					newtiles[bpos+cols]=basetile;
-				break;
-		
-			case 'L': 
-					//swap "blank" with tile to left.
-					newtiles[bpos]=newtiles[bpos-1];
-					newtiles[bpos-1]=basetile;
-				break;
-
-			case 'R': 
-					//swap "blank" with tile to right.
-					newtiles[bpos]=newtiles[bpos+1];
-					newtiles[bpos+1]=basetile;
-				break;
-		}
+		int target= neighbour(direction);
+		int tile= puzzle.tile(state,target);
+		long newstate= puzzle.slide(state,bpos,target);
+		int newh= puzzle.update(newstate,h,tile,target,bpos);
+
+		return new Board(puzzle, this, newstate, target, newh, direction, steps);
+	}
+
+
+	/**
+	 * Slide the blank in place instead of building a new board.
+	 *
+	 * @param direction Directions possible: U, D, R, or L; assumed valid.
+	 *
+	 * <p>Lets a depth-first search walk a single board; unmakeMove steps
+	 * back to where we were.</p>
+	 */
+	public void makeMove(char direction)
+	{
+		slideTo(neighbour(direction));
+		dir= direction;
+		g++;
+	}
+
+
+	/**
+	 * Take back the last makeMove.
+	 *
+	 * @param previous direction that got us to the board we return to
+	 */
+	public void unmakeMove(char previous)
+	{
+		int move= Puzzle.MOVES.indexOf(dir);
+		if (move >= 0)
+			slideTo(puzzle.target(bpos,move^1));
+		dir= previous;
+		g--;
+	}
 
-		newBoard = new Board(this, newtiles, direction, steps);
 
-		return newBoard;
+	/**
+	 * Make a list of moves, one board per move.
+	 *
+	 * @param directions moves as from Solver, whose first direction is skipped
+	 * @return last board, linked back to this one
+	 */
+	public Board replay(String directions)
+	{
+		Board b= this;
+		for (int i=1; i<directions.length(); i++)
+			b= b.movePiece(directions.charAt(i),b.getSteps());
+		return b;
+	}
+
+
+	/**
+	 * Copy of this board without its history.
+	 *
+	 * @return unlinked board with the same tiles, direction, g and h
+	 */
+	public Board snapshot()
+	{
+		return new Board(puzzle, null, state, bpos, h, dir, g-1);
+	}
+
+
+	/**
+	 * Cell the blank moves to in a given direction.
+	 */
+	private int neighbour(char direction)
+	{
+		int move= Puzzle.MOVES.indexOf(direction);
+		return move < 0 ? bpos : puzzle.target(bpos,move);
+	}
+
+
+	/**
+	 * Move the blank to pos in place, keeping h up to date.
+	 */
+	private void slideTo(int pos)
+	{
+		int tile= puzzle.tile(state,pos);
+		state= puzzle.slide(state,bpos,pos);
+		h= puzzle.update(state,h,tile,pos,bpos);
+		bpos= pos;
 	}
 
 
@@ -206,6 +259,15 @@ public class Board implements Comparable<Board>
 		return g;
 	}
 
+	/**
+	 * Getter for estimated total cost, f = g + h.
+	 */
+	public int getCost()
+	{
+		return g+h;
+	}
+
+
 	/**
 	 * Getter for direction used.
 	 */
@@ -221,7 +283,16 @@ public class Board implements Comparable<Board>
 	 */
 	public boolean isGoal()
 	{
-		return h==0;
+		return state==puzzle.getGoal();
+	}
+
+
+	/**
+	 * Getter for packed tile positions.
+	 */
+	public long getState()
+	{
+		return state;
 	}
 
 
@@ -233,9 +304,9 @@ public class Board implements Comparable<Board>
 	@Override
 	public String toString()
 	{
-		String str="("+(int)tiles[0];
-		for (int i=1; i<tiles.length; i++)
-			str+= " "+(int)tiles[i];
+		String str="("+puzzle.tile(state,0);
+		for (int i=1; i<puzzle.size(); i++)
+			str+= " "+puzzle.tile(state,i);
 		return String.format(str+" | f:%2d, g:%2d, h:%2d)",g+h,g,h);
 	}
 
@@ -245,19 +316,51 @@ public class Board implements Comparable<Board>
 	 */
 	public void display()
 	{
-		int i,j;
-		System.out.println("+----+----+----+----+");
-		System.out.printf("| f=%3d g=%3d h=%3d |\n",h+g,g,h);
-		for (i=0; i<rows; i++) {
-			System.out.println("+----+----+----+----+");
+		int [] tiles= new int[puzzle.size()];
+		for (int i=0; i<tiles.length; i++)
+			tiles[i]= puzzle.tile(state,i);
+		display(tiles,puzzle.getCols(),puzzle.getBlank(),g,h);
+	}
+
+
+	/**
+	 * Displays an ASCII board of any size along with f(), g(), and h() values.
+	 *
+	 * @param tiles tile in each cell, row by row
+	 * @param cols number of columns on the board
+	 * @param blank value used for the blank tile
+	 * @param g cost so far
+	 * @param h heuristic value
+	 *
+	 * <p>Cells are as wide as the largest tile number, but never narrower
+	 * than two digits.</p>
+	 */
+	public static void display(int [] tiles, int cols, int blank, int g, int h)
+	{
+		int width= Math.max(2,Integer.toString(tiles.length-1).length());
+		StringBuilder line= new StringBuilder("+");
+		for (int j=0; j<cols; j++) {
+			for (int k=0; k<width+2; k++)
+				line.append('-');
+			line.append('+');
+		}
+		String stats= String.format("f=%3d g=%3d h=%3d",h+g,g,h);
+		String header= "| "+String.format("%-"+Math.max(stats.length(),line.length()-4)+"s",stats)+" |";
+
+		System.out.println(line);
+		System.out.println(header);
+		for (int i=0; i<tiles.length; i+= cols) {
+			System.out.println(line);
 			System.out.printf("| ");
-			for (j=0; j<cols; j++)
-				if (tiles[i*cols+j]==rows*cols-1)  // if blank
-					System.out.printf("%2s | ",' ');
+			for (int j=0; j<cols; j++) {
+				int t= tiles[i+j];
+				if (t==blank)  // if blank
+					System.out.printf("%"+width+"s | ",' ');
 				else
-					System.out.printf("%2d | ",(int)tiles[i*cols+j]);
+					System.out.printf("%"+width+"d | ",t);
+			}
 			System.out.println();
 		}
-		System.out.println("+----+----+----+----+\n");
+		System.out.println(line+"\n");
 	}
 }
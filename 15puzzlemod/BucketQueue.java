@@ -0,0 +1,126 @@
+/**
+ * Open list for integer priorities: an array of stacks indexed by f and g.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>A* priorities are small bounded integers, so instead of a binary heap
+ * we keep one stack per (f,g) pair. Pushing is constant time. Popping takes
+ * the lowest non-empty f, then the highest (or lowest) non-empty g within
+ * it per the TieBreak; both scans are bounded by the largest f rather than
+ * by the number of items queued.</p>
+ *
+ * @param <E> type of item queued
+ */
+import java.util.Arrays;
+
+public class BucketQueue<E>
+{
+	private Object [][][] stacks; // stacks[f][g] holds items with that f and g
+	private int [][] counts;      // counts[f][g] items in each stack
+	private int [] total;         // total[f] items with that f
+	private int minf;             // no items have f below this
+	private int size;             // items in the queue
+	private TieBreak tie;         // which g to prefer within an f
+
+	/**
+	 * Create an empty queue.
+	 *
+	 * @param tie which g to pop first among items of equal f
+	 */
+	public BucketQueue(TieBreak tie)
+	{
+		this.tie= tie;
+		this.stacks= new Object[64][][];
+		this.counts= new int[64][];
+		this.total= new int[64];
+		this.minf= 0;
+		this.size= 0;
+	}
+
+
+	/**
+	 * Add an item.
+	 *
+	 * @param item item to queue
+	 * @param f its priority (lower comes out first)
+	 * @param g its cost so far, used to break ties
+	 */
+	public void push(E item, int f, int g)
+	{
+		if (f >= total.length) {
+			int len= Math.max(f+1,2*total.length);
+			stacks= Arrays.copyOf(stacks,len);
+			counts= Arrays.copyOf(counts,len);
+			total= Arrays.copyOf(total,len);
+		}
+		if (counts[f]==null || g >= counts[f].length) {
+			int len= Math.max(g+1,f+1);
+			stacks[f]= stacks[f]==null ? new Object[len][] : Arrays.copyOf(stacks[f],len);
+			counts[f]= counts[f]==null ? new int[len] : Arrays.copyOf(counts[f],len);
+		}
+
+		Object [] stack= stacks[f][g];
+		int count= counts[f][g];
+		if (stack==null)
+			stack= stacks[f][g]= new Object[16];
+		else if (count==stack.length)
+			stack= stacks[f][g]= Arrays.copyOf(stack,2*count);
+		stack[count]= item;
+		counts[f][g]= count+1;
+		total[f]++;
+		if (f < minf)
+			minf= f;
+		size++;
+	}
+
+
+	/**
+	 * Remove the item with lowest f, breaking ties on g.
+	 *
+	 * @return the item, or null if the queue is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public E pop()
+	{
+		if (size==0)
+			return null;
+		while (total[minf]==0)
+			minf++;
+
+		int [] count= counts[minf];
+		int g;
+		if (tie==TieBreak.HIGH_G)
+			for (g= count.length-1; count[g]==0; g--)
+				;
+		else
+			for (g= 0; count[g]==0; g++)
+				;
+
+		Object [] stack= stacks[minf][g];
+		E item= (E) stack[--count[g]];
+		stack[count[g]]= null;
+		total[minf]--;
+		size--;
+		return item;
+	}
+
+
+	/**
+	 * Lowest f of any queued item.
+	 *
+	 * @return lowest f, or Integer.MAX_VALUE if the queue is empty
+	 */
+	public int minCost()
+	{
+		if (size==0)
+			return Integer.MAX_VALUE;
+		while (total[minf]==0)
+			minf++;
+		return minf;
+	}
+
+
+	public int size() { return size; }
+	public boolean isEmpty() { return size==0; }
+}
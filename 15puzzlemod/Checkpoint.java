@@ -0,0 +1,244 @@
+/**
+ * Saved state of a search on one board, so a long run can carry on after
+ * a restart.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>For IDA* that is just the bound of the pass under way and how many
+ * passes came before it, with the counts as they stood when it began: a
+ * resumed search runs that pass again from the top. For A* it is every
+ * node of the arena and the open list in queue order; the table of
+ * reached states is rebuilt from them, so a resumed search pops the same
+ * boards in the same order and ends exactly as it would have.</p>
+ *
+ * <p>File layout (big-endian): magic, rows, cols, the search (a SearchMode
+ * ordinal), the start state as two longs (the second 0 for a packed board),
+ * the start's h, then states, duplicate states and expansions so far. IDA*
+ * follows with its bound and passes; A* with the node count, each node's
+ * state, parent and packed info, then the open count and the open nodes.
+ * Everything is written in order through one buffer, to a scratch file
+ * that then replaces the old checkpoint, so a crash while saving leaves
+ * the last one whole.</p>
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class Checkpoint
+{
+	public static final int MAGIC= 0x434B5031; // "CKP1"
+	private static final int BUFFER= 1<<20;    // bytes moved per read or write
+
+	private int rows,cols;    // board size
+	private SearchMode mode;  // ASTAR or IDASTAR
+	private long lo,hi;       // start state; hi is 0 unless it takes two words
+	private int h;            // start's estimate, to catch a change of heuristic
+	private long states;      // boards generated so far
+	private long duplicates;  // of which were duplicates
+	private long expansions;  // boards expanded so far
+	private int bound;        // IDA*: bound of the pass to run
+	private int passes;       // IDA*: passes finished before it
+	private NodeArena nodes;  // A*: every node
+	private int [] open;      // A*: open nodes, as IntBucketQueue.toArray gives them
+
+	/**
+	 * Describe the search being saved.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param mode ASTAR or IDASTAR
+	 * @param lo start state, or its low word
+	 * @param hi its high word, or 0 for a packed state
+	 * @param h estimate of the start state
+	 */
+	public Checkpoint(int rows, int cols, SearchMode mode, long lo, long hi, int h)
+	{
+		this.rows= rows;
+		this.cols= cols;
+		this.mode= mode;
+		this.lo= lo;
+		this.hi= hi;
+		this.h= h;
+	}
+
+
+	/**
+	 * Record the counts for this board so far.
+	 */
+	public void setCounts(long states, long duplicates, long expansions)
+	{
+		this.states= states;
+		this.duplicates= duplicates;
+		this.expansions= expansions;
+	}
+
+
+	/**
+	 * Record where IDA* is.
+	 *
+	 * @param bound bound of the pass to run next
+	 * @param passes passes already finished
+	 */
+	public void setPass(int bound, int passes)
+	{
+		this.bound= bound;
+		this.passes= passes;
+	}
+
+
+	/**
+	 * Record where A* is.
+	 *
+	 * @param nodes every node so far
+	 * @param open the open nodes, from IntBucketQueue.toArray
+	 */
+	public void setNodes(NodeArena nodes, int [] open)
+	{
+		this.nodes= nodes;
+		this.open= open;
+	}
+
+
+	/**
+	 * Whether this checkpoint is of a given search on a given board.
+	 */
+	public boolean matches(int rows, int cols, SearchMode mode, long lo, long hi, int h)
+	{
+		return this.rows==rows && this.cols==cols && this.mode==mode
+			&& this.lo==lo && this.hi==hi && this.h==h;
+	}
+
+
+	/**
+	 * Write the checkpoint, replacing any file already there.
+	 *
+	 * @param fileName where to write it
+	 */
+	public void save(String fileName) throws IOException
+	{
+		Path path= Paths.get(fileName);
+		Path scratch= Paths.get(fileName+".tmp");
+		ByteBuffer buf= ByteBuffer.allocateDirect(BUFFER);
+		try (FileChannel out= FileChannel.open(scratch,StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)) {
+			buf.putInt(MAGIC).putInt(rows).putInt(cols).putInt(mode.ordinal());
+			buf.putLong(lo).putLong(hi).putInt(h);
+			buf.putLong(states).putLong(duplicates).putLong(expansions);
+			if (mode==SearchMode.ASTAR) {
+				buf.putInt(nodes.size());
+				for (int i=0; i<nodes.size(); i++) {
+					if (buf.remaining() < 16)
+						drain(out,buf);
+					buf.putLong(nodes.state(i)).putInt(nodes.parent(i)).putInt(nodes.info(i));
+				}
+				if (buf.remaining() < 4)
+					drain(out,buf);
+				buf.putInt(open.length);
+				for (int item : open) {
+					if (buf.remaining() < 4)
+						drain(out,buf);
+					buf.putInt(item);
+				}
+			}
+			else
+				buf.putInt(bound).putInt(passes);
+			drain(out,buf);
+			out.force(true);
+		}
+		Files.move(scratch,path,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+	}
+
+
+	/**
+	 * Read a checkpoint back.
+	 *
+	 * @param fileName file written by save
+	 * @return the checkpoint
+	 */
+	public static Checkpoint load(String fileName) throws IOException
+	{
+		ByteBuffer buf= ByteBuffer.allocateDirect(BUFFER);
+		try (FileChannel in= FileChannel.open(Paths.get(fileName),StandardOpenOption.READ)) {
+			buf.limit(0);
+			fill(in,buf,16);
+			if (buf.getInt()!=MAGIC)
+				throw new IOException(fileName+" is not a checkpoint");
+			int rows= buf.getInt(), cols= buf.getInt();
+			int ordinal= buf.getInt();
+			if (ordinal < 0 || ordinal >= SearchMode.values().length)
+				throw new IOException(fileName+" has an unknown search");
+			fill(in,buf,20);
+			Checkpoint c= new Checkpoint(rows,cols,SearchMode.values()[ordinal],buf.getLong(),buf.getLong(),buf.getInt());
+			fill(in,buf,24);
+			c.setCounts(buf.getLong(),buf.getLong(),buf.getLong());
+			if (c.mode==SearchMode.ASTAR) {
+				fill(in,buf,4);
+				int size= buf.getInt();
+				NodeArena nodes= new NodeArena(size);
+				for (int i=0; i<size; i++) {
+					fill(in,buf,16);
+					nodes.add(buf.getLong(),buf.getInt(),buf.getInt());
+				}
+				fill(in,buf,4);
+				int [] open= new int[buf.getInt()];
+				for (int i=0; i<open.length; i++) {
+					fill(in,buf,4);
+					open[i]= buf.getInt();
+				}
+				c.setNodes(nodes,open);
+			}
+			else {
+				fill(in,buf,8);
+				c.setPass(buf.getInt(),buf.getInt());
+			}
+			return c;
+		}
+	}
+
+
+	/**
+	 * Write out and empty a buffer.
+	 */
+	private static void drain(FileChannel out, ByteBuffer buf) throws IOException
+	{
+		buf.flip();
+		while (buf.hasRemaining())
+			out.write(buf);
+		buf.clear();
+	}
+
+
+	/**
+	 * Make sure a buffer holds at least some bytes yet to be read.
+	 */
+	private static void fill(FileChannel in, ByteBuffer buf, int bytes) throws IOException
+	{
+		if (buf.remaining() >= bytes)
+			return;
+		buf.compact();
+		while (buf.position() < bytes)
+			if (in.read(buf) < 0)
+				throw new IOException("checkpoint ends early");
+		buf.flip();
+	}
+
+
+	public int getRows() { return rows; }
+	public int getCols() { return cols; }
+	public SearchMode getMode() { return mode; }
+	public long getLo() { return lo; }
+	public long getHi() { return hi; }
+	public long getStates() { return states; }
+	public long getDuplicates() { return duplicates; }
+	public long getExpansions() { return expansions; }
+	public int getBound() { return bound; }
+	public int getPasses() { return passes; }
+	public NodeArena getNodes() { return nodes; }
+	public int [] getOpen() { return open; }
+}
@@ -5,17 +5,210 @@
  * @version Spring 2016
  *
  * To test this, compile and then: java Driver < quickcases.in
+ * Pick a search by name if you like: java Driver idastar < largecases.in
+ * Use a pattern database (built on first use): java Driver -pdb pdb663.dat
+ * or with the 7-8 split, too big to build in memory, built on disk sorting
+ * 512MB at a time: java Driver -pdb pdb78.dat -partition 78 -disk /tmp -mem 512
+ * Other heuristics: java Driver -h manhattan|conflict|walking
+ * Queue boards by manhattan and apply those only to boards about to be
+ * expanded: java Driver -lazy -h conflict -pdb pdb663.dat
+ * Expand shallow boards first among equal f: java Driver -tie low
+ * Solve all boards at once on 8 threads (0 for every core): java Driver -threads 8
+ * or each board in turn with HDA* on 8 threads: java Driver hdastar -threads 8
+ * or with IDA* on 8 threads: java Driver pidastar -threads 8
+ * Keep only the open list, for boards A* runs out of memory on: java Driver frontier
+ * Trade optimality for speed: java Driver wastar -w 3
+ * or improve on that for at most 500ms a board: java Driver arastar -w 3 -time 500
+ * Give up on any board after 2 seconds: java Driver -budget 2000
+ * Remember solutions across runs: java Driver -cache solutions.dat
+ * Keep A*'s closed set in 512MB of bits set 3 per state, at some risk of
+ * missing the best solution: java Driver -bitstate 512 -hashes 3
+ * Store every state within 12 moves of the goal: java Driver -perimeter 12
+ * Save A*'s progress every minute (IDA*'s every pass): java Driver -checkpoint run.ckp -every 60000
+ * and after a restart, finish that board before the rest: java Driver -resume run.ckp
+ * Other board sizes: java Driver -size 3x3 < boards33.in
+ * and for up to 12 cells, look every board up: java Driver -size 3x3 -table table33.dat
+ * Boards of 17-25 cells use two-word states: java Driver -size 5x5 < boards55.in
+ * (IDA* by default, or astar or pidastar; manhattan only, and only -threads,
+ * -budget, -checkpoint and -resume of the other options)
 */
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class Driver
 {
-	public static void main(String [] args)
+	// options that boards of more than Puzzle.MAX_CELLS cells can take
+	private static final List<String> WIDE_OPTIONS= Arrays.asList("-size","-h","-threads","-budget","-checkpoint","-resume");
+
+	public static void main(String [] args) throws IOException, InterruptedException
 	{
-		Solver solver= new Solver(4,4,System.in);
-		while (solver.nextBoard()) {
-			solver.solve();
+		SearchMode mode= SearchMode.ASTAR;
+		boolean named= false; // a search was picked by name
+		String pdbFile= null;
+		String heuristic= "manhattan";
+		TieBreak tie= TieBreak.HIGH_G;
+		int threads= -1; // not given
+		double weight= 2.0;
+		long timeLimit= 0;
+		Duration budget= null;
+		String cacheFile= null;
+		String tableFile= null;
+		int rows= 4, cols= 4;
+		int perimeter= 0;
+		boolean lazy= false;
+		int bitState= 0, hashes= 3;
+		String checkpointFile= null, resumeFile= null;
+		long every= 60000;
+		int [][] partition= PatternDatabase.PARTITION_663;
+		String scratch= null;
+		int memory= 256;
+		List<String> given= new ArrayList<String>(); // options on the command line
+
+		for (int i=0; i<args.length; i++) {
+			if (args[i].startsWith("-"))
+				given.add(args[i]);
+			if (args[i].equals("-pdb"))
+				pdbFile= args[++i];
+			else if (args[i].equals("-h"))
+				heuristic= args[++i];
+			else if (args[i].equals("-threads"))
+				threads= Integer.parseInt(args[++i]);
+			else if (args[i].equals("-w"))
+				weight= Double.parseDouble(args[++i]);
+			else if (args[i].equals("-time"))
+				timeLimit= Long.parseLong(args[++i]);
+			else if (args[i].equals("-budget"))
+				budget= Duration.ofMillis(Long.parseLong(args[++i]));
+			else if (args[i].equals("-size")) {
+				String [] size= args[++i].split("x");
+				rows= Integer.parseInt(size[0]);
+				cols= Integer.parseInt(size[1]);
+			}
+			else if (args[i].equals("-table"))
+				tableFile= args[++i];
+			else if (args[i].equals("-perimeter"))
+				perimeter= Integer.parseInt(args[++i]);
+			else if (args[i].equals("-bitstate"))
+				bitState= Integer.parseInt(args[++i]);
+			else if (args[i].equals("-hashes"))
+				hashes= Integer.parseInt(args[++i]);
+			else if (args[i].equals("-checkpoint"))
+				checkpointFile= args[++i];
+			else if (args[i].equals("-every"))
+				every= Long.parseLong(args[++i]);
+			else if (args[i].equals("-resume"))
+				resumeFile= args[++i];
+			else if (args[i].equals("-lazy"))
+				lazy= true;
+			else if (args[i].equals("-cache"))
+				cacheFile= args[++i];
+			else if (args[i].equals("-tie"))
+				tie= args[++i].equals("low") ? TieBreak.LOW_G : TieBreak.HIGH_G;
+			else if (args[i].equals("-partition"))
+				partition= args[++i].equals("78") ? PatternDatabase.PARTITION_78 : PatternDatabase.PARTITION_663;
+			else if (args[i].equals("-disk"))
+				scratch= args[++i];
+			else if (args[i].equals("-mem"))
+				memory= Integer.parseInt(args[++i]);
+			else {
+				mode= SearchMode.valueOf(args[i].toUpperCase());
+				named= true;
+			}
+		}
+
+		if (rows*cols > Puzzle.MAX_CELLS) {
+			String wide= " is not available on boards over "+Puzzle.MAX_CELLS+" cells";
+			if (!named)
+				mode= SearchMode.IDASTAR;
+			if (mode!=SearchMode.IDASTAR && mode!=SearchMode.PIDASTAR && mode!=SearchMode.ASTAR)
+				refuse(mode.name().toLowerCase()+wide+"; use idastar, pidastar or astar");
+			for (String option : given)
+				if (!WIDE_OPTIONS.contains(option))
+					refuse(option+wide);
+			if (!heuristic.equals("manhattan"))
+				refuse("-h "+heuristic+wide+"; they are estimated by manhattan distance");
+			if (threads >= 0 && mode!=SearchMode.PIDASTAR)
+				refuse("-threads"+wide+" except with pidastar");
+			if ((checkpointFile!=null || resumeFile!=null) && mode!=SearchMode.IDASTAR)
+				refuse((checkpointFile!=null ? "-checkpoint" : "-resume")+wide+" except with idastar");
+
+			WideSolver solver= new WideSolver(rows,cols,System.in,mode);
+			solver.setThreads(Math.max(threads,0));
+			solver.setCheckpoint(checkpointFile);
+			if (resumeFile!=null)
+				solver.resume(resumeFile);
+			while (resumeFile!=null || solver.nextBoard()) {
+				resumeFile= null;
+				SolveResult result= solver.solve(budget);
+				System.out.println(solver);
+				if (!result.isSolved())
+					System.out.println(result);
+				System.out.println("------------------------------------------------");
+			}
+			return;
+		}
+
+		if (mode==SearchMode.MM && (perimeter > 0 || pdbFile!=null && !lazy))
+			refuse((perimeter > 0 ? "-perimeter" : "-pdb")+" only estimates towards the usual goal, so cannot be used with mm");
+		Solver solver= new Solver(rows,cols,System.in,mode);
+		solver.setTieBreak(tie);
+		solver.setWeight(weight);
+		solver.setTimeLimit(timeLimit);
+		solver.setBitState(bitState,hashes);
+		solver.setCheckpoint(checkpointFile,every);
+		if (cacheFile!=null)
+			solver.setCache(SolutionCache.open(cacheFile,rows,cols,1<<16));
+		if (lazy) {
+			List<Heuristic> expensive= new ArrayList<Heuristic>();
+			if (heuristic.equals("conflict"))
+				expensive.add(new LinearConflictHeuristic(new Puzzle(rows,cols)));
+			else if (heuristic.equals("walking"))
+				expensive.add(new WalkingDistanceHeuristic(new Puzzle(rows,cols)));
+			if (pdbFile!=null)
+				expensive.add(PatternDatabase.open(pdbFile,rows,cols,partition,scratch,memory));
+			solver.setLazyHeuristics(expensive.toArray(new Heuristic[0]));
+		}
+		else if (pdbFile!=null)
+			solver.setHeuristic(PatternDatabase.open(pdbFile,rows,cols,partition,scratch,memory));
+		else if (heuristic.equals("conflict"))
+			solver.setHeuristic(new LinearConflictHeuristic(new Puzzle(rows,cols)));
+		else if (heuristic.equals("walking"))
+			solver.setHeuristic(new WalkingDistanceHeuristic(new Puzzle(rows,cols)));
+		solver.setPerimeter(perimeter);
+		if (tableFile!=null)
+			solver.setPerfectTable(PerfectTable.open(tableFile,rows,cols));
+		if (mode==SearchMode.HDASTAR || mode==SearchMode.PIDASTAR)
+			solver.setThreads(Math.max(threads,0));
+		else if (threads==0 || threads > 1) {
+			if (checkpointFile!=null || resumeFile!=null)
+				refuse("-checkpoint and -resume solve one board at a time, so cannot be used with -threads");
+			if (bitState > 0)
+				refuse("-bitstate would allocate its megabytes for every board at once, so cannot be used with -threads");
+			new BatchSolver(solver,threads,budget).run();
+			return;
+		}
+		if (resumeFile!=null)
+			solver.resume(resumeFile);
+		while (resumeFile!=null || solver.nextBoard()) {
+			resumeFile= null;
+			SolveResult result= solver.solve(budget);
 			System.out.println(solver);
+			if (!result.isSolved())
+				System.out.println(result);
 			System.out.println("------------------------------------------------");
 		}
 	}
+
+
+	/**
+	 * Stop on options that cannot be used together.
+	 */
+	private static void refuse(String problem)
+	{
+		System.err.println(problem);
+		System.exit(1);
+	}
 }
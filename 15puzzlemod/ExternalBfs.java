@@ -0,0 +1,399 @@
+/**
+ * PatternDatabaseBuilder's breadth-first search with its layers on disk.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Each layer is a file of its states in increasing order, stored as the
+ * gap from the one before in 7-bit groups (a varint), so neighbouring
+ * states cost a byte or two apiece. To make the next layer, the states one
+ * move from the current layer are collected in memory, sorted and written
+ * out as a run whenever the buffer fills. The runs are then merged, each
+ * state kept once, and any already in the current or previous layer
+ * dropped. Moves can be undone, so those are the only layers a state one
+ * move on can already be in. Nothing needs random access, and every file
+ * is read and written in order through large buffers.</p>
+ *
+ * <p>States are ordered by placement rank first, so one last merge of
+ * every layer meets the placements in rank order and the table comes out
+ * in order too, each entry the first layer reaching its placement.</p>
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExternalBfs
+{
+	private static final int BUFFER= 1<<20; // bytes per file buffer
+
+	private PatternDatabaseBuilder builder; // moves between pattern states
+	private String scratch;  // directory to put this search's files under
+	private int capacity;    // states sorted in memory at once
+	private int n;           // number of cells
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param builder builder whose states and moves to use
+	 * @param scratch directory for the layer files
+	 * @param megabytes memory to sort generated states in, at least 1
+	 */
+	public ExternalBfs(PatternDatabaseBuilder builder, String scratch, int megabytes)
+	{
+		if (megabytes < 1 || megabytes > 8192)
+			throw new IllegalArgumentException("sort memory must be 1 to 8192 MB");
+		this.builder= builder;
+		this.scratch= scratch;
+		this.capacity= megabytes<<17;
+		this.n= builder.size();
+	}
+
+
+	/**
+	 * Search out one pattern and write its table.
+	 *
+	 * @param pattern tiles in the pattern, in slot order
+	 * @param out where to write the table, at its current position
+	 */
+	public void writeTable(int [] pattern, FileChannel out) throws IOException
+	{
+		int k= pattern.length;
+		long size= PatternDatabase.tableSize(n,k);
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(k+"-tile pattern has too many placements to rank");
+
+		Path dir= Files.createTempDirectory(Paths.get(scratch),"pdb");
+		List<Path> layers= new ArrayList<Path>();
+		long [] buffer= new long[capacity];
+		try {
+			Path first= dir.resolve("layer0");
+			try (Writer w= new Writer(first)) {
+				w.add(builder.start(pattern));
+			}
+			layers.add(first);
+			for (int depth= 1; ; depth++) {
+				Path next= dir.resolve("layer"+depth);
+				if (expand(layers,next,k,dir,buffer)==0) {
+					Files.delete(next);
+					break;
+				}
+				layers.add(next);
+			}
+			table(layers,size,out);
+		}
+		finally {
+			for (Path p : layers)
+				Files.deleteIfExists(p);
+			Files.deleteIfExists(dir);
+		}
+	}
+
+
+	/**
+	 * Make the layer after the last one.
+	 *
+	 * @param layers every layer so far
+	 * @param next file for the new layer
+	 * @param k number of tiles in the pattern
+	 * @param dir directory for the sorted runs
+	 * @param buffer where to collect states for sorting
+	 * @return states in the new layer
+	 */
+	private long expand(List<Path> layers, Path next, int k, Path dir, long [] buffer) throws IOException
+	{
+		Path current= layers.get(layers.size()-1);
+		List<Path> runs= new ArrayList<Path>();
+		long [] out= new long[4*n];
+		int count= 0;
+
+		List<Reader> readers= new ArrayList<Reader>();
+		try {
+			try (Reader r= new Reader(current)) {
+				for (long i= r.next(); i >= 0; i= r.next()) {
+					if (count > buffer.length-out.length) {
+						runs.add(run(buffer,count,dir.resolve("run"+runs.size())));
+						count= 0;
+					}
+					int m= builder.successors(i,k,out);
+					System.arraycopy(out,0,buffer,count,m);
+					count+= m;
+				}
+			}
+			runs.add(run(buffer,count,dir.resolve("run"+runs.size())));
+
+			for (Path p : runs)
+				readers.add(new Reader(p));
+			Merge merge= new Merge(readers);
+			Reader same= new Reader(current);
+			readers.add(same);
+			Reader before= layers.size() > 1 ? new Reader(layers.get(layers.size()-2)) : null;
+			if (before!=null)
+				readers.add(before);
+			long c= same.next(), b= before==null ? -1 : before.next();
+			try (Writer w= new Writer(next)) {
+				for (long s= merge.next(); s >= 0; s= merge.next()) {
+					while (c >= 0 && c < s)
+						c= same.next();
+					while (b >= 0 && b < s)
+						b= before.next();
+					if (s!=c && s!=b)
+						w.add(s);
+				}
+				return w.count();
+			}
+		}
+		finally {
+			for (Reader r : readers)
+				r.close();
+			for (Path p : runs)
+				Files.deleteIfExists(p);
+		}
+	}
+
+
+	/**
+	 * Sort and write out the states collected so far, each once.
+	 *
+	 * @return the run's file
+	 */
+	private Path run(long [] buffer, int count, Path file) throws IOException
+	{
+		Arrays.sort(buffer,0,count);
+		try (Writer w= new Writer(file)) {
+			for (int i=0; i<count; i++)
+				if (i==0 || buffer[i]!=buffer[i-1])
+					w.add(buffer[i]);
+		}
+		return file;
+	}
+
+
+	/**
+	 * Write the table by merging every layer in rank order.
+	 */
+	private void table(List<Path> layers, long size, FileChannel out) throws IOException
+	{
+		List<Reader> readers= new ArrayList<Reader>();
+		try {
+			for (Path p : layers)
+				readers.add(new Reader(p));
+			Merge merge= new Merge(readers);
+			ByteBuffer buf= ByteBuffer.allocateDirect(BUFFER);
+			long i= merge.next();
+			for (long config=0; config<size; config++) {
+				int depth= 0xFF; // -1, as the in-memory search leaves an unreached placement
+				for (; i >= 0 && i/n==config; i= merge.next())
+					depth= Math.min(depth,merge.from());
+				if (!buf.hasRemaining())
+					drain(out,buf);
+				buf.put((byte) depth);
+			}
+			drain(out,buf);
+		}
+		finally {
+			for (Reader r : readers)
+				r.close();
+		}
+	}
+
+
+	private static void drain(FileChannel out, ByteBuffer buf) throws IOException
+	{
+		buf.flip();
+		while (buf.hasRemaining())
+			out.write(buf);
+		buf.clear();
+	}
+
+
+	/**
+	 * Writes increasing states to a layer or run file.
+	 */
+	private static class Writer implements AutoCloseable
+	{
+		private FileChannel channel;
+		private ByteBuffer buf= ByteBuffer.allocateDirect(BUFFER);
+		private long last= -1; // state written last
+		private long count;    // states written
+
+		Writer(Path file) throws IOException
+		{
+			channel= FileChannel.open(file,StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+
+		/**
+		 * Append a state above the last one.
+		 */
+		void add(long state) throws IOException
+		{
+			if (buf.remaining() < 10)
+				drain(channel,buf);
+			long gap= state-last;
+			while (gap >= 0x80) {
+				buf.put((byte) (gap | 0x80));
+				gap>>>= 7;
+			}
+			buf.put((byte) gap);
+			last= state;
+			count++;
+		}
+
+
+		long count() { return count; }
+
+		@Override
+		public void close() throws IOException
+		{
+			drain(channel,buf);
+			channel.close();
+		}
+	}
+
+
+	/**
+	 * Reads back the states of a file made by a Writer.
+	 */
+	private static class Reader implements AutoCloseable
+	{
+		private FileChannel channel;
+		private ByteBuffer buf= ByteBuffer.allocateDirect(BUFFER);
+		private boolean eof;   // nothing left in the file past buf
+		private long last= -1; // state read last
+
+		Reader(Path file) throws IOException
+		{
+			channel= FileChannel.open(file,StandardOpenOption.READ);
+			buf.limit(0);
+		}
+
+
+		/**
+		 * Next state in the file.
+		 *
+		 * @return the state, or -1 at the end
+		 */
+		long next() throws IOException
+		{
+			if (buf.remaining() < 10 && !eof) {
+				buf.compact();
+				while (buf.hasRemaining() && !eof)
+					eof= channel.read(buf) < 0;
+				buf.flip();
+			}
+			if (!buf.hasRemaining())
+				return -1;
+			long gap= 0;
+			int b, shift= 0;
+			do {
+				b= buf.get();
+				gap|= (long) (b & 0x7F) << shift;
+				shift+= 7;
+			} while ((b & 0x80)!=0);
+			return last+= gap;
+		}
+
+
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
+
+
+	/**
+	 * Merges increasing files into one increasing stream, each state once.
+	 */
+	private static class Merge
+	{
+		private Reader [] readers;
+		private long [] heads; // next state of each reader, or -1 once it is done
+		private int [] heap;   // readers with states left, by head
+		private int live;      // readers in the heap
+		private int from;      // lowest reader that held the last state returned
+
+		Merge(List<Reader> readers) throws IOException
+		{
+			this.readers= readers.toArray(new Reader[0]);
+			this.heads= new long[this.readers.length];
+			this.heap= new int[this.readers.length];
+			for (int r=0; r<this.readers.length; r++) {
+				heads[r]= this.readers[r].next();
+				if (heads[r] >= 0) {
+					heap[live]= r;
+					up(live++);
+				}
+			}
+		}
+
+
+		/**
+		 * Smallest state not yet returned.
+		 *
+		 * @return the state, or -1 once every file is done
+		 */
+		long next() throws IOException
+		{
+			if (live==0)
+				return -1;
+			long state= heads[heap[0]];
+			from= Integer.MAX_VALUE;
+			while (live > 0 && heads[heap[0]]==state) {
+				int r= heap[0];
+				from= Math.min(from,r);
+				heads[r]= readers[r].next();
+				if (heads[r] < 0)
+					heap[0]= heap[--live];
+				down(0);
+			}
+			return state;
+		}
+
+
+		int from() { return from; }
+
+
+		private boolean less(int a, int b)
+		{
+			return heads[heap[a]] < heads[heap[b]];
+		}
+
+
+		private void up(int i)
+		{
+			for (; i > 0 && less(i,(i-1)/2); i= (i-1)/2)
+				swap(i,(i-1)/2);
+		}
+
+
+		private void down(int i)
+		{
+			while (2*i+1 < live) {
+				int child= 2*i+1;
+				if (child+1 < live && less(child+1,child))
+					child++;
+				if (!less(child,i))
+					break;
+				swap(i,child);
+				i= child;
+			}
+		}
+
+
+		private void swap(int a, int b)
+		{
+			int t= heap[a];
+			heap[a]= heap[b];
+			heap[b]= t;
+		}
+	}
+}
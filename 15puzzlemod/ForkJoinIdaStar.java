@@ -0,0 +1,266 @@
+/**
+ * IDA* with each pass spread over the threads of a ForkJoinPool, whatever
+ * the boards' states look like.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Every pass expands the first few plies as tasks, one per child, and
+ * below that each task searches its subtree depth-first, just as IDA*
+ * would. There are many more subtrees than threads and they vary wildly in
+ * size, so idle threads steal the tasks still waiting on busy ones.</p>
+ *
+ * <p>All tasks read the pass's f bound. Each combines the smallest f it cut
+ * off into the next bound with a compare-and-set, and the first to reach
+ * the goal records its path the same way, so nothing is locked. Any goal
+ * found in a pass costs exactly the bound, since the last pass proved
+ * nothing cheaper exists, so the first one is optimal and the others stop
+ * looking.</p>
+ *
+ * <p>This class runs the passes and the split; a subclass's Subtree holds
+ * a board in its own kind of state and searches below it. ParallelIdaStar
+ * does that for one-word states and WideParallelIdaStar for two.</p>
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+public abstract class ForkJoinIdaStar
+{
+	private static final int TASKS_PER_THREAD= 32; // subtrees per thread, so there is work to steal
+	private static final int CHECK= 1023;          // boards between looks at the stop flags
+
+	private int threads;         // size of the pool
+	private int splitDepth;      // plies expanded as tasks before going depth-first
+	private BooleanSupplier giveUp= () -> false; // asked to stop from outside
+	private volatile boolean stop;   // set to make every task give up
+	protected int bound;             // largest f expanded this pass
+	private AtomicInteger next;      // smallest f cut off this pass
+	private AtomicReference<String> solution; // moves to the goal, once found
+	private LongAdder states;        // boards generated by the last search
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param threads number of workers, or 0 for one per processor
+	 */
+	protected ForkJoinIdaStar(int threads)
+	{
+		this.threads= threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		// with the way back pruned, a ply roughly doubles the boards
+		this.splitDepth= 32-Integer.numberOfLeadingZeros(TASKS_PER_THREAD*this.threads);
+		this.states= new LongAdder();
+	}
+
+
+	/**
+	 * Give the search a way to be stopped early.
+	 *
+	 * @param giveUp checked by the calling thread every few milliseconds
+	 * while a pass runs; true means give up
+	 */
+	public void setStop(BooleanSupplier giveUp)
+	{
+		this.giveUp= giveUp;
+	}
+
+
+	/**
+	 * Run passes until an optimal solution is found.
+	 *
+	 * @param h estimate of the start board
+	 * @param start makes the task for the start board, with no path yet
+	 * @return directions from the start, or null if there is no solution
+	 * or the search was stopped
+	 */
+	protected String run(int h, Supplier<Subtree> start) throws InterruptedException
+	{
+		stop= false;
+		solution= new AtomicReference<String>();
+		states= new LongAdder();
+		bound= h;
+
+		ForkJoinPool pool= new ForkJoinPool(threads);
+		try {
+			while (solution.get()==null && bound!=Integer.MAX_VALUE) {
+				next= new AtomicInteger(Integer.MAX_VALUE);
+				Subtree root= start.get();
+				root.path= new char[bound+1];
+				ForkJoinTask<Void> pass= pool.submit(root);
+				while (true) {
+					try {
+						pass.get(10,TimeUnit.MILLISECONDS);
+						break;
+					}
+					catch (TimeoutException e) {
+						if (!stop && giveUp.getAsBoolean())
+							stop= true;
+					}
+					catch (ExecutionException e) {
+						throw new IllegalStateException("parallel IDA* task failed",e.getCause());
+					}
+				}
+				if (stop)
+					return null;
+				bound= next.get();
+			}
+		}
+		finally {
+			stop= true;
+			pool.shutdownNow();
+		}
+		return solution.get();
+	}
+
+
+	/**
+	 * Boards generated by the last search, over all its passes.
+	 */
+	public long getStates()
+	{
+		return states.sum();
+	}
+
+
+	/**
+	 * Fold an f that was cut off into the next pass's bound.
+	 */
+	private void cutOff(int f)
+	{
+		if (f < next.get())
+			next.accumulateAndGet(f,Math::min);
+	}
+
+
+	/**
+	 * The part of a pass below one board.
+	 */
+	@SuppressWarnings("serial")
+	protected abstract class Subtree extends RecursiveAction
+	{
+		protected int h;        // estimate of the board at the top
+		protected int bpos;     // its blank's cell
+		protected int last;     // move that led to it, -1 for the start
+		protected int g;        // moves from the start
+		protected char [] path; // directions so far, indexed by move; our own copy
+		protected long generated; // boards generated, added to states at the end
+		protected boolean quit;   // the goal was found or we were told to stop
+
+		protected Subtree(int h, int bpos, int last, int g)
+		{
+			this.h= h;
+			this.bpos= bpos;
+			this.last= last;
+			this.g= g;
+		}
+
+
+		/**
+		 * @return whether the board at the top is the goal
+		 */
+		protected abstract boolean atGoal();
+
+
+		/**
+		 * @return bit set of the moves out of the board at the top, without
+		 * the way back
+		 */
+		protected abstract int successors();
+
+
+		/**
+		 * Make the task for the board one move down, with no path yet.
+		 *
+		 * @param move index into Puzzle.MOVES
+		 */
+		protected abstract Subtree child(int move);
+
+
+		/**
+		 * Bounded depth-first search below the board at the top, calling
+		 * stopping and found as Solver's IDA* would look at its flags and
+		 * goal.
+		 *
+		 * @return smallest f beyond bound, or anything once quit is set
+		 */
+		protected abstract int search();
+
+
+		/**
+		 * @return true, setting quit, if the search should give up; only
+		 * looks now and then, so it can be called for every board
+		 */
+		protected boolean stopping()
+		{
+			if ((generated & CHECK)==0 && (stop || solution.get()!=null)) {
+				quit= true;
+				return true;
+			}
+			return false;
+		}
+
+
+		/**
+		 * Record the path to a goal g moves from the start, and quit.
+		 */
+		protected void found(int g)
+		{
+			solution.compareAndSet(null,new String(path,0,g));
+			quit= true;
+		}
+
+
+		@Override
+		protected void compute()
+		{
+			try {
+				if (g >= splitDepth)
+					cutOff(search());
+				else
+					split();
+			}
+			finally {
+				states.add(generated);
+			}
+		}
+
+
+		/**
+		 * Hand each child within the bound to a task of its own.
+		 */
+		private void split()
+		{
+			if (stop || solution.get()!=null)
+				return;
+			if (atGoal()) {
+				found(g);
+				return;
+			}
+
+			List<Subtree> children= new ArrayList<Subtree>(4);
+			for (int moves= successors(); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				Subtree child= child(move);
+				generated++;
+				if (g+1+child.h > bound) {
+					cutOff(g+1+child.h);
+					continue;
+				}
+				child.path= path.clone();
+				child.path[g]= Puzzle.MOVES.charAt(move);
+				children.add(child);
+			}
+			invokeAll(children);
+		}
+	}
+}
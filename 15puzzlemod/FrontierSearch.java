@@ -0,0 +1,282 @@
+/**
+ * A* that keeps only its open list (frontier search).
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>A closed set exists to stop expanded states being generated again.
+ * Here each open node instead remembers which of its moves lead back to
+ * neighbours that have already reached it, and never makes those moves.
+ * Every neighbour of an expanded state has either reached it or been
+ * reached from it, so no expanded state comes back, and its node can be
+ * thrown away as soon as its children are made. Memory grows with the
+ * frontier rather than with everything explored. Like A* without reopening,
+ * this is optimal with a consistent heuristic, which every Heuristic here
+ * is.</p>
+ *
+ * <p>With no parents to follow, the path is rebuilt by divide and conquer:
+ * every node also carries its ancestor a given number of moves from the
+ * start (its relay). Once the goal is found, a search from the start to
+ * the goal's relay and another from the relay to the goal, each run the
+ * same way and split again, put the moves back together. Searches towards
+ * a relay estimate by Manhattan distance to it (see Puzzle's goal
+ * constructor), and each is at most about half as deep as the one it came
+ * from, so together they cost far less than the first.</p>
+ */
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+public class FrontierSearch
+{
+	private static final int ABSENT= -1; // not a node
+
+	private Puzzle puzzle;    // puzzle of the start boards, with the usual goal
+	private TieBreak tie;     // order of equal-f nodes
+	private float loadFactor; // for the table of open states
+	private BooleanSupplier stop= () -> false; // asked to give up early
+	private long states;      // boards generated by the last search
+	private long duplicates;  // of which were already open
+	private int peak;         // most nodes open at once in the last search
+
+	// open nodes, by slot; slots are reused once a node is expanded
+	private long [] nodeStates; // packed state
+	private long [] relays;     // ancestor relayDepth moves from the start, if that deep
+	private int [] info;        // g (16 bits), h (8), blank (4), moves not to make (4)
+	private int [] free;        // slots no node holds
+	private int freeCount;      // how many of free are in use
+	private int slots;          // slots handed out so far
+
+	private int cost;    // length of the path the last pass found
+	private long relay;  // its state relayDepth moves from its start
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param puzzle puzzle the start boards belong to
+	 * @param tie how to order nodes of equal f
+	 * @param loadFactor how full the table of open states gets before growing
+	 */
+	public FrontierSearch(Puzzle puzzle, TieBreak tie, float loadFactor)
+	{
+		this.puzzle= puzzle;
+		this.tie= tie;
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Give the search a way to be stopped early.
+	 *
+	 * @param stop checked every thousand or so expansions; true means give up
+	 */
+	public void setStop(BooleanSupplier stop)
+	{
+		this.stop= stop;
+	}
+
+
+	/**
+	 * Search from a board until an optimal solution is found.
+	 *
+	 * @param start board to solve
+	 * @return goal board linked back to start, or null if there is none
+	 * or the search was stopped
+	 */
+	public Board search(Board start)
+	{
+		states= 0;
+		duplicates= 0;
+		peak= 0;
+
+		long from= start.getState(), goal= puzzle.getGoal();
+		int half= Math.max(1,puzzle.estimate(from)/2);
+		if (!pass(from,puzzle,half))
+			return null;
+
+		StringBuilder moves= new StringBuilder();
+		int length= cost;
+		long mid= relay;
+		boolean rebuilt= length < 2 ? connect(from,goal,length,moves)
+			: connect(from,mid,half,moves) && connect(mid,goal,length-half,moves);
+		return rebuilt ? start.replay(start.getDir()+moves.toString()) : null;
+	}
+
+
+	/**
+	 * Boards generated by the last search, rebuilding the path included.
+	 */
+	public long getStates()
+	{
+		return states;
+	}
+
+
+	/**
+	 * Generated boards whose state was already open.
+	 */
+	public long getDuplicates()
+	{
+		return duplicates;
+	}
+
+
+	/**
+	 * Most nodes held at once by the last search, which is all the memory
+	 * it needed.
+	 */
+	public int getPeak()
+	{
+		return peak;
+	}
+
+
+	/**
+	 * Find the moves of an optimal path whose length is known.
+	 *
+	 * @param from state to start from
+	 * @param to state to end on
+	 * @param length moves on an optimal path between them
+	 * @param moves directions so far, to append to
+	 * @return true unless the search was stopped
+	 */
+	private boolean connect(long from, long to, int length, StringBuilder moves)
+	{
+		if (length==0)
+			return true;
+		if (length==1) {
+			int bpos= puzzle.blankPosition(from);
+			for (int m= puzzle.successors(bpos,-1); m!=0; m&= m-1) {
+				int move= Integer.numberOfTrailingZeros(m);
+				if (puzzle.slide(from,bpos,puzzle.target(bpos,move))==to) {
+					moves.append(Puzzle.MOVES.charAt(move));
+					return true;
+				}
+			}
+			throw new IllegalStateException("relay is not next to its neighbour");
+		}
+
+		Puzzle toward= to==puzzle.getGoal() ? puzzle
+			: new Puzzle(puzzle.getRows(),puzzle.getCols(),to,null);
+		int half= length/2;
+		if (!pass(from,toward,half))
+			return false;
+		long mid= relay;
+		return connect(from,mid,half,moves) && connect(mid,to,length-half,moves);
+	}
+
+
+	/**
+	 * One frontier A* search, noting the cost of the path found and its relay.
+	 *
+	 * @param from state to start from
+	 * @param toward puzzle whose goal and heuristic to search towards
+	 * @param relayDepth moves from the start at which nodes record their relay
+	 * @return true if the goal was reached; false if it cannot be, or the
+	 * search was stopped
+	 */
+	private boolean pass(long from, Puzzle toward, int relayDepth)
+	{
+		IntBucketQueue open= new IntBucketQueue(tie,true);
+		LongIntMap index= new LongIntMap(1<<16,loadFactor); // state -> slot of its open node
+		nodeStates= new long[1<<16];
+		relays= new long[1<<16];
+		info= new int[1<<16];
+		free= new int[1<<10];
+		freeCount= 0;
+		slots= 0;
+
+		int root= store(from,from,0,toward.estimate(from),toward.blankPosition(from),0);
+		open.push(root,h(root),0);
+		index.put(from,root);
+		long expansions= 0;
+
+		while (!open.isEmpty()) {
+			peak= Math.max(peak,open.size());
+			int curr= open.pop();
+			if ((++expansions & 1023)==0 && stop.getAsBoolean())
+				return false;
+			long state= nodeStates[curr];
+			index.remove(state,ABSENT);
+			if (state==toward.getGoal()) {
+				cost= g(curr);
+				relay= relays[curr];
+				return true;
+			}
+
+			int g= g(curr)+1;
+			int h= h(curr);
+			int bpos= blank(curr);
+			for (int moves= toward.successors(bpos,-1) & ~used(curr); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				int target= toward.target(bpos,move);
+				int back= 1<<(move^1); // the move that would undo this one
+
+				int tile= toward.tile(state,target);
+				long next= toward.slide(state,bpos,target);
+				long nextRelay= g==relayDepth ? next : relays[curr];
+				states++;
+
+				int known= index.get(next,ABSENT);
+				if (known==ABSENT) {
+					int child= store(next,nextRelay,g,toward.update(next,h,tile,target,bpos),target,back);
+					index.put(next,child);
+					open.push(child,g+h(child),g);
+					continue;
+				}
+				duplicates++;
+				info[known]|= back;
+				if (g < g(known)) {
+					int oldg= g(known);
+					info[known]= g<<16 | info[known] & 0xFFFF;
+					relays[known]= nextRelay;
+					open.move(known,oldg+h(known),oldg,g+h(known),g);
+				}
+			}
+			free(curr);
+		}
+		return false;
+	}
+
+
+	/**
+	 * Put a node in a free slot.
+	 *
+	 * @return the slot
+	 */
+	private int store(long state, long relay, int g, int h, int blank, int used)
+	{
+		int i;
+		if (freeCount > 0)
+			i= free[--freeCount];
+		else {
+			if (slots==nodeStates.length) {
+				int len= 2*slots;
+				nodeStates= Arrays.copyOf(nodeStates,len);
+				relays= Arrays.copyOf(relays,len);
+				info= Arrays.copyOf(info,len);
+			}
+			i= slots++;
+		}
+		nodeStates[i]= state;
+		relays[i]= relay;
+		info[i]= g<<16 | h<<8 | blank<<4 | used;
+		return i;
+	}
+
+
+	/**
+	 * Give an expanded node's slot back.
+	 */
+	private void free(int i)
+	{
+		if (freeCount==free.length)
+			free= Arrays.copyOf(free,2*freeCount);
+		free[freeCount++]= i;
+	}
+
+
+	private int g(int i) { return info[i] >>> 16; }
+	private int h(int i) { return (info[i] >>> 8) & 0xFF; }
+	private int blank(int i) { return (info[i] >>> 4) & 0xF; }
+	private int used(int i) { return info[i] & 0xF; }
+}
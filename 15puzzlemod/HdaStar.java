@@ -0,0 +1,274 @@
+/**
+ * Hash-distributed parallel A* on a single board.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Every state has an owner thread picked by hashing it. Each thread keeps
+ * its own open list and its own table of the best g seen for the states it
+ * owns, so neither needs a lock. A generated board is handed to its owner
+ * through that owner's mailbox, a lock-free queue.</p>
+ *
+ * <p>Threads do not stop at the first goal they see. A goal only becomes the
+ * incumbent, whose cost prunes every board with f at or above it; the search
+ * ends once no thread is busy and no board is in a mailbox. At that point
+ * everything cheaper than the incumbent has been expanded, so it is optimal.
+ * A single counter tracks both, since a board is counted from when it is
+ * sent until its owner has taken it, and the owner counts itself busy
+ * before that.</p>
+ *
+ * <p>A worker with nothing to do parks until a board is sent to it or the
+ * search ends, rather than spinning, so the workers still busy have the
+ * processors to themselves. Waking one, a worker yields to it in case they
+ * share a processor, or it could run far ahead on boards the woken one
+ * would show to be too dear.</p>
+ */
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+public class HdaStar
+{
+	private static final long PARK_NANOS= 1000000; // longest an idle worker sleeps before looking again
+
+	private Worker [] workers;   // one per thread, indexed by owner
+	private TieBreak tie;        // order of equal-f boards in each open list
+	private float loadFactor;    // for each thread's table of best g
+	private AtomicInteger work;  // busy workers plus boards in mailboxes
+	private volatile int bound;  // cost of the incumbent, MAX_VALUE if none
+	private Board incumbent;     // cheapest goal found so far
+	private volatile boolean stop;      // set to make every worker give up
+	private BooleanSupplier giveUp= () -> false; // asked to stop from outside
+	private volatile Throwable failure; // first error in any worker
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param threads number of workers, or 0 for one per processor
+	 * @param tie how each open list orders equal-f boards
+	 * @param loadFactor how full each best-g table gets before growing
+	 */
+	public HdaStar(int threads, TieBreak tie, float loadFactor)
+	{
+		this.workers= new Worker[threads > 0 ? threads : Runtime.getRuntime().availableProcessors()];
+		this.tie= tie;
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Give the search a way to be stopped early.
+	 *
+	 * @param giveUp checked by the calling thread every few milliseconds
+	 * while the workers run; true means give up
+	 */
+	public void setStop(BooleanSupplier giveUp)
+	{
+		this.giveUp= giveUp;
+	}
+
+
+	/**
+	 * Search from a board until an optimal solution is proven.
+	 *
+	 * @param start board to solve
+	 * @return goal board linked back to start, or null if there is none
+	 * or the search was stopped
+	 */
+	public Board search(Board start) throws InterruptedException
+	{
+		work= new AtomicInteger(workers.length);
+		bound= Integer.MAX_VALUE;
+		incumbent= null;
+		stop= false;
+		failure= null;
+
+		Thread [] threads= new Thread[workers.length];
+		for (int i=0; i<workers.length; i++)
+			workers[i]= new Worker(i);
+		workers[owner(start.getState())].receive(start);
+		for (int i=0; i<workers.length; i++) {
+			threads[i]= new Thread(workers[i],"hdastar-"+i);
+			workers[i].thread= threads[i];
+			threads[i].start();
+		}
+		try {
+			for (Thread t : threads)
+				while (t.isAlive()) {
+					t.join(10);
+					if (!stop && giveUp.getAsBoolean())
+						stop= true;
+				}
+		}
+		finally {
+			stop= true;
+		}
+		if (failure!=null)
+			throw new IllegalStateException("HDA* worker failed",failure);
+		return work.get()==0 ? incumbent : null;
+	}
+
+
+	/**
+	 * Boards generated by the last search.
+	 */
+	public long getStates()
+	{
+		long states= 0;
+		for (Worker w : workers)
+			states+= w.states;
+		return states;
+	}
+
+
+	/**
+	 * Generated boards dropped because their owner had already reached
+	 * them at no greater cost.
+	 */
+	public long getDuplicates()
+	{
+		long duplicates= 0;
+		for (Worker w : workers)
+			duplicates+= w.duplicates;
+		return duplicates;
+	}
+
+
+	/**
+	 * Thread that owns a state.
+	 *
+	 * <p>Uses the high bits of the hash; the low bits index the owner's
+	 * table, and reusing them would leave most of its slots empty.</p>
+	 */
+	private int owner(long state)
+	{
+		return (int) ((Puzzle.mix(state) >>> 32) % workers.length);
+	}
+
+
+	/**
+	 * Make a goal the incumbent if it is cheaper than the current one.
+	 */
+	private synchronized void offer(Board goal)
+	{
+		if (goal.getSteps() < bound) {
+			incumbent= goal;
+			bound= goal.getSteps();
+		}
+	}
+
+
+	/**
+	 * Count one piece of work done, waking every worker if it was the last
+	 * so that they see the search is over.
+	 */
+	private void done()
+	{
+		if (work.decrementAndGet()==0)
+			for (Worker w : workers)
+				LockSupport.unpark(w.thread);
+	}
+
+
+	/**
+	 * One thread's share of the search.
+	 */
+	private class Worker implements Runnable
+	{
+		private int id;
+		private BucketQueue<Board> open= new BucketQueue<Board>(tie);
+		private LongIntMap best= new LongIntMap(1<<16,loadFactor);
+		private ConcurrentLinkedQueue<Board> mailbox= new ConcurrentLinkedQueue<Board>();
+		private long states;
+		private long duplicates;
+		private Thread thread;          // thread running this worker
+		private volatile boolean idle;  // parked, or about to park
+
+		Worker(int id)
+		{
+			this.id= id;
+		}
+
+
+		@Override
+		public void run()
+		{
+			boolean busy= true;
+			try {
+				while (!stop) {
+					Board b;
+					while ((b= mailbox.poll())!=null) {
+						if (!busy) {
+							work.incrementAndGet();
+							busy= true;
+						}
+						receive(b);
+						done();
+					}
+
+					Board curr= open.pop();
+					if (curr==null) {
+						if (busy) {
+							busy= false;
+							done();
+						}
+						idle= true;
+						if (mailbox.isEmpty() && work.get()!=0 && !stop)
+							LockSupport.parkNanos(this,PARK_NANOS);
+						idle= false;
+						if (work.get()==0)
+							return;
+						continue;
+					}
+					if (curr.getCost() >= bound)
+						continue; // cannot beat the incumbent
+					if (best.get(curr.getState(),Integer.MAX_VALUE) < curr.getSteps())
+						continue; // reached more cheaply since it was queued
+
+					int steps= curr.getSteps();
+					for (int moves= curr.legalMoves(); moves!=0; moves&= moves-1) {
+						char dir= Puzzle.MOVES.charAt(Integer.numberOfTrailingZeros(moves));
+						Board next= curr.movePiece(dir,steps);
+						states++;
+						if (next.getCost() >= bound)
+							continue;
+						int to= owner(next.getState());
+						if (to==id)
+							receive(next);
+						else {
+							work.incrementAndGet();
+							workers[to].mailbox.add(next);
+							if (workers[to].idle) {
+								LockSupport.unpark(workers[to].thread);
+								Thread.yield();
+							}
+						}
+					}
+				}
+			}
+			catch (Throwable e) {
+				failure= e;
+				stop= true;
+			}
+		}
+
+
+		/**
+		 * Take a board we own: keep it if it is the cheapest way there yet.
+		 */
+		void receive(Board b)
+		{
+			if (b.isGoal()) {
+				offer(b);
+				return;
+			}
+			if (best.get(b.getState(),Integer.MAX_VALUE) <= b.getSteps()) {
+				duplicates++;
+				return;
+			}
+			best.put(b.getState(),b.getSteps());
+			open.push(b,b.getCost(),b.getSteps());
+		}
+	}
+}
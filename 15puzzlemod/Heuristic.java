@@ -0,0 +1,33 @@
+/**
+ * Estimates the number of moves from a state to the goal.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>An estimate must never be larger than the true number of moves, or
+ * the searches may return longer solutions than necessary. Searches call
+ * update after every move so implementations can look at just the part of
+ * the board that changed instead of starting over.</p>
+ */
+public interface Heuristic
+{
+	/**
+	 * Estimate moves from a state to the goal.
+	 *
+	 * @param state packed state
+	 * @return lower bound on moves to the goal
+	 */
+	int estimate(long state);
+
+	/**
+	 * Estimate after one tile slid, given the estimate before.
+	 *
+	 * @param state packed state after the move
+	 * @param h estimate before the move
+	 * @param tile tile that moved
+	 * @param from cell the tile left (now the blank)
+	 * @param to cell the tile moved into
+	 * @return estimate for state
+	 */
+	int update(long state, int h, int tile, int from, int to);
+}
@@ -0,0 +1,188 @@
+/**
+ * BucketQueue for int items, such as NodeArena indices.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Same stacks indexed by f and g, but each stack is an int array, so a
+ * queued node costs four bytes and no object.</p>
+ *
+ * <p>An indexed queue also records where in its stack each item sits, so
+ * move can lower an item's priority in place (decrease-key): the item is
+ * swapped with the top of its stack, taken off, and pushed onto its new
+ * one. Items must then be small non-negative ints, such as arena indices,
+ * and each may be queued only once at a time.</p>
+ */
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+public class IntBucketQueue
+{
+	private int [][][] stacks;    // stacks[f][g] holds items with that f and g
+	private int [][] counts;      // counts[f][g] items in each stack
+	private int [] total;         // total[f] items with that f
+	private int minf;             // no items have f below this
+	private int size;             // items in the queue
+	private TieBreak tie;         // which g to prefer within an f
+	private int [] where;         // each item's place in its stack, or null if not indexed
+
+	/**
+	 * Create an empty queue.
+	 *
+	 * @param tie which g to pop first among items of equal f
+	 */
+	public IntBucketQueue(TieBreak tie)
+	{
+		this(tie,false);
+	}
+
+
+	/**
+	 * Create an empty queue that can move its items.
+	 *
+	 * @param tie which g to pop first among items of equal f
+	 * @param indexed whether to track items' places, for move
+	 */
+	public IntBucketQueue(TieBreak tie, boolean indexed)
+	{
+		this.tie= tie;
+		this.where= indexed ? new int[1<<10] : null;
+		this.stacks= new int[64][][];
+		this.counts= new int[64][];
+		this.total= new int[64];
+		this.minf= 0;
+		this.size= 0;
+	}
+
+
+	/**
+	 * Add an item.
+	 *
+	 * @param item item to queue
+	 * @param f its priority (lower comes out first)
+	 * @param g its cost so far, used to break ties
+	 */
+	public void push(int item, int f, int g)
+	{
+		if (f >= total.length) {
+			int len= Math.max(f+1,2*total.length);
+			stacks= Arrays.copyOf(stacks,len);
+			counts= Arrays.copyOf(counts,len);
+			total= Arrays.copyOf(total,len);
+		}
+		if (counts[f]==null || g >= counts[f].length) {
+			int len= Math.max(g+1,f+1);
+			stacks[f]= stacks[f]==null ? new int[len][] : Arrays.copyOf(stacks[f],len);
+			counts[f]= counts[f]==null ? new int[len] : Arrays.copyOf(counts[f],len);
+		}
+
+		int [] stack= stacks[f][g];
+		int count= counts[f][g];
+		if (stack==null)
+			stack= stacks[f][g]= new int[16];
+		else if (count==stack.length)
+			stack= stacks[f][g]= Arrays.copyOf(stack,2*count);
+		stack[count]= item;
+		counts[f][g]= count+1;
+		if (where!=null) {
+			if (item >= where.length)
+				where= Arrays.copyOf(where,Math.max(item+1,2*where.length));
+			where[item]= count;
+		}
+		total[f]++;
+		if (f < minf)
+			minf= f;
+		size++;
+	}
+
+
+	/**
+	 * Remove an item with the lowest f, breaking ties on g.
+	 *
+	 * @return the item, or -1 if the queue is empty
+	 */
+	public int pop()
+	{
+		if (size==0)
+			return -1;
+		while (total[minf]==0)
+			minf++;
+
+		int [] count= counts[minf];
+		int g;
+		if (tie==TieBreak.HIGH_G)
+			for (g= count.length-1; count[g]==0; g--)
+				;
+		else
+			for (g= 0; count[g]==0; g++)
+				;
+
+		total[minf]--;
+		size--;
+		return stacks[minf][g][--count[g]];
+	}
+
+
+	/**
+	 * Give a queued item a new priority, in an indexed queue.
+	 *
+	 * @param item item already in the queue
+	 * @param f its priority when it was pushed or last moved
+	 * @param g its cost then
+	 * @param newF its new priority
+	 * @param newG its new cost
+	 */
+	public void move(int item, int f, int g, int newF, int newG)
+	{
+		int [] stack= stacks[f][g];
+		int top= --counts[f][g];
+		int at= where[item];
+		stack[at]= stack[top];
+		where[stack[at]]= at;
+		total[f]--;
+		size--;
+		push(item,newF,newG);
+	}
+
+
+	/**
+	 * Every queued item still under its current f, for a queue whose items
+	 * are pushed again rather than moved when their f changes, in an order
+	 * that pushing them again with the same f and g rebuilds this queue,
+	 * down to which comes out first, less the stale copies.
+	 *
+	 * @param current each item's f now; a copy queued under another is stale
+	 * @return items by f, then g, each stack from the bottom up
+	 */
+	public int [] toArray(IntUnaryOperator current)
+	{
+		int [] items= new int[size];
+		int n= 0;
+		for (int f=0; f<total.length; f++)
+			if (total[f] > 0)
+				for (int g=0; g<counts[f].length; g++)
+					for (int i=0; i<counts[f][g]; i++)
+						if (current.applyAsInt(stacks[f][g][i])==f)
+							items[n++]= stacks[f][g][i];
+		return Arrays.copyOf(items,n);
+	}
+
+
+	/**
+	 * Lowest f of any queued item.
+	 *
+	 * @return lowest f, or Integer.MAX_VALUE if the queue is empty
+	 */
+	public int minCost()
+	{
+		if (size==0)
+			return Integer.MAX_VALUE;
+		while (total[minf]==0)
+			minf++;
+		return minf;
+	}
+
+
+	public int size() { return size; }
+	public boolean isEmpty() { return size==0; }
+}
@@ -0,0 +1,130 @@
+/**
+ * Manhattan distance plus linear conflicts.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Two tiles that are both in their goal row (or column) but in the wrong
+ * order must pass each other, which costs at least two moves more than
+ * their Manhattan distances. For each line we add two moves for every tile
+ * that has to leave it, i.e. the tiles outside the longest run that is
+ * already in goal order. Goal rows and columns are read off the puzzle's
+ * goal, so it may be any arrangement.</p>
+ *
+ * <p>Conflicts are looked up in a table indexed by the line's contents, where
+ * each cell is coded as its tile's goal position along the line, or as
+ * "other" when the tile does not belong to the line. A vertical move keeps
+ * every column in the same order and a horizontal move keeps every row, so
+ * update only recodes the two lines the tile moved between.</p>
+ */
+public class LinearConflictHeuristic extends ManhattanHeuristic
+{
+	private int [] rowConflicts; // extra moves for each coded row
+	private int [] colConflicts; // extra moves for each coded column
+
+	/**
+	 * Build the conflict tables for a puzzle.
+	 *
+	 * @param puzzle dimensions of the boards to estimate
+	 */
+	public LinearConflictHeuristic(Puzzle puzzle)
+	{
+		super(puzzle);
+		this.rowConflicts= conflictTable(puzzle.getCols());
+		this.colConflicts= conflictTable(puzzle.getRows());
+	}
+
+
+	@Override
+	public int estimate(long state)
+	{
+		int h= super.estimate(state);
+		for (int r=0; r<puzzle.getRows(); r++)
+			h+= rowConflicts[rowCode(state,r)];
+		for (int c=0; c<puzzle.getCols(); c++)
+			h+= colConflicts[colCode(state,c)];
+		return h;
+	}
+
+
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		int cols= puzzle.getCols();
+		long before= puzzle.slide(state,from,to);
+
+		h= super.update(state,h,tile,from,to);
+		if (from/cols==to/cols) {
+			h+= colConflicts[colCode(state,from%cols)] - colConflicts[colCode(before,from%cols)];
+			h+= colConflicts[colCode(state,to%cols)] - colConflicts[colCode(before,to%cols)];
+		}
+		else {
+			h+= rowConflicts[rowCode(state,from/cols)] - rowConflicts[rowCode(before,from/cols)];
+			h+= rowConflicts[rowCode(state,to/cols)] - rowConflicts[rowCode(before,to/cols)];
+		}
+		return h;
+	}
+
+
+	/**
+	 * Code a row as base (cols+1) digits, one per cell.
+	 */
+	private int rowCode(long state, int r)
+	{
+		int cols= puzzle.getCols(), code= 0;
+		for (int c=cols-1; c>=0; c--) {
+			int t= puzzle.tile(state,r*cols+c);
+			code= code*(cols+1) + (t!=puzzle.getBlank() && home[t]/cols==r ? home[t]%cols : cols);
+		}
+		return code;
+	}
+
+
+	/**
+	 * Code a column as base (rows+1) digits, one per cell.
+	 */
+	private int colCode(long state, int c)
+	{
+		int rows= puzzle.getRows(), cols= puzzle.getCols(), code= 0;
+		for (int r=rows-1; r>=0; r--) {
+			int t= puzzle.tile(state,r*cols+c);
+			code= code*(rows+1) + (t!=puzzle.getBlank() && home[t]%cols==c ? home[t]/cols : rows);
+		}
+		return code;
+	}
+
+
+	/**
+	 * Extra moves for every possible line of length len.
+	 *
+	 * @param len cells in the line
+	 * @return table indexed by line code
+	 */
+	private static int [] conflictTable(int len)
+	{
+		int size= 1;
+		for (int i=0; i<len; i++)
+			size*= len+1;
+
+		int [] table= new int[size];
+		int [] goal= new int[len];
+		int [] run= new int[len];
+		for (int code=0; code<size; code++) {
+			int count= 0, longest= 0;
+			for (int i=0, rest=code; i<len; i++, rest/= len+1)
+				if (rest%(len+1)!=len)
+					goal[count++]= rest%(len+1);
+
+			// longest increasing run of goal positions, O(len^2) is plenty
+			for (int i=0; i<count; i++) {
+				run[i]= 1;
+				for (int j=0; j<i; j++)
+					if (goal[j] < goal[i] && run[j]+1 > run[i])
+						run[i]= run[j]+1;
+				longest= Math.max(longest,run[i]);
+			}
+			table[code]= 2*(count-longest);
+		}
+		return table;
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * Set of longs using open addressing with linear probing.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Keys live directly in a long array, so an entry costs 8 bytes divided
+ * by the load factor instead of a HashMap node plus a boxed key. Zero marks
+ * an empty slot; a zero key is tracked by a separate flag. Keys are spread
+ * with Puzzle.mix since packed states differ in only a few bits.</p>
+ */
+public class LongHashSet
+{
+	public static final int MAX_CAPACITY= 1<<30; // largest power of two an array can hold
+
+	private long [] keys;    // slots, 0 if empty
+	private boolean hasZero; // whether key 0 is in the set
+	private int size;        // keys in the set
+	private int mask;        // keys.length-1
+	private int limit;       // grow when size passes this
+	private float loadFactor;// fraction of slots we allow to fill
+
+	/**
+	 * Create an empty set.
+	 *
+	 * @param capacity initial number of slots (rounded up to a power of two)
+	 * @param loadFactor fraction of slots to fill before doubling, 0 to 1
+	 */
+	public LongHashSet(int capacity, float loadFactor)
+	{
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("load factor must be between 0 and 1");
+		this.loadFactor= loadFactor;
+		allocate(Math.max(2,Integer.highestOneBit(Math.min(capacity,MAX_CAPACITY)-1)<<1));
+	}
+
+
+	/**
+	 * Add a key.
+	 *
+	 * @param key key to add
+	 * @return true if the key was not already present
+	 */
+	public boolean add(long key)
+	{
+		if (key==0) {
+			if (hasZero)
+				return false;
+			hasZero= true;
+			size++;
+			return true;
+		}
+
+		int i= (int) Puzzle.mix(key) & mask;
+		while (keys[i]!=0) {
+			if (keys[i]==key)
+				return false;
+			i= (i+1) & mask;
+		}
+		keys[i]= key;
+		if (++size > limit)
+			grow();
+		return true;
+	}
+
+
+	/**
+	 * Check for a key.
+	 *
+	 * @param key key to look for
+	 * @return true if the key is present
+	 */
+	public boolean contains(long key)
+	{
+		if (key==0)
+			return hasZero;
+
+		int i= (int) Puzzle.mix(key) & mask;
+		while (keys[i]!=0) {
+			if (keys[i]==key)
+				return true;
+			i= (i+1) & mask;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Number of keys in the set.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * Double the table and reinsert every key.
+	 */
+	private void grow()
+	{
+		long [] old= keys;
+		if (old.length==MAX_CAPACITY)
+			throw new IllegalStateException("LongHashSet is full");
+		allocate(old.length*2);
+		for (long key : old)
+			if (key!=0) {
+				int i= (int) Puzzle.mix(key) & mask;
+				while (keys[i]!=0)
+					i= (i+1) & mask;
+				keys[i]= key;
+			}
+	}
+
+
+	private void allocate(int capacity)
+	{
+		keys= new long[capacity];
+		mask= capacity-1;
+		limit= (int) Math.min(capacity*(double) loadFactor,capacity-1);
+	}
+}
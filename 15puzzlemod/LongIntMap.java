@@ -0,0 +1,168 @@
+/**
+ * Map from longs to ints using open addressing with linear probing.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>The map counterpart of LongHashSet: keys and values sit in parallel
+ * arrays, zero marks an empty key slot and a zero key is kept on the side.
+ * Removing a key shifts back the keys probed past it, so lookups never
+ * need markers for deleted slots.</p>
+ */
+public class LongIntMap
+{
+	private long [] keys;    // key slots, 0 if empty
+	private int [] values;   // value for the key in the same slot
+	private boolean hasZero; // whether key 0 is in the map
+	private int zeroValue;   // its value if so
+	private int size;        // keys in the map
+	private int mask;        // keys.length-1
+	private int limit;       // grow when size passes this
+	private float loadFactor;// fraction of slots we allow to fill
+
+	/**
+	 * Create an empty map.
+	 *
+	 * @param capacity initial number of slots (rounded up to a power of two)
+	 * @param loadFactor fraction of slots to fill before doubling, 0 to 1
+	 */
+	public LongIntMap(int capacity, float loadFactor)
+	{
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("load factor must be between 0 and 1");
+		this.loadFactor= loadFactor;
+		allocate(Math.max(2,Integer.highestOneBit(Math.min(capacity,LongHashSet.MAX_CAPACITY)-1)<<1));
+	}
+
+
+	/**
+	 * Look up a key.
+	 *
+	 * @param key key to look for
+	 * @param missing value to return if the key is absent
+	 * @return the key's value, or missing
+	 */
+	public int get(long key, int missing)
+	{
+		if (key==0)
+			return hasZero ? zeroValue : missing;
+
+		int i= (int) Puzzle.mix(key) & mask;
+		while (keys[i]!=0) {
+			if (keys[i]==key)
+				return values[i];
+			i= (i+1) & mask;
+		}
+		return missing;
+	}
+
+
+	/**
+	 * Set a key's value, adding the key if need be.
+	 *
+	 * @param key key to set
+	 * @param value its new value
+	 */
+	public void put(long key, int value)
+	{
+		if (key==0) {
+			if (!hasZero)
+				size++;
+			hasZero= true;
+			zeroValue= value;
+			return;
+		}
+
+		int i= (int) Puzzle.mix(key) & mask;
+		while (keys[i]!=0) {
+			if (keys[i]==key) {
+				values[i]= value;
+				return;
+			}
+			i= (i+1) & mask;
+		}
+		keys[i]= key;
+		values[i]= value;
+		if (++size > limit)
+			grow();
+	}
+
+
+	/**
+	 * Remove a key.
+	 *
+	 * @param key key to remove
+	 * @param missing value to return if the key is absent
+	 * @return the key's value, or missing
+	 */
+	public int remove(long key, int missing)
+	{
+		if (key==0) {
+			if (!hasZero)
+				return missing;
+			hasZero= false;
+			size--;
+			return zeroValue;
+		}
+
+		int i= (int) Puzzle.mix(key) & mask;
+		while (keys[i]!=key) {
+			if (keys[i]==0)
+				return missing;
+			i= (i+1) & mask;
+		}
+		int value= values[i];
+		// fill the hole with any later key in the run whose home slot is not
+		// between the hole and where the key sits
+		for (int j= (i+1) & mask; keys[j]!=0; j= (j+1) & mask) {
+			int home= (int) Puzzle.mix(keys[j]) & mask;
+			if (((j-home) & mask) >= ((j-i) & mask)) {
+				keys[i]= keys[j];
+				values[i]= values[j];
+				i= j;
+			}
+		}
+		keys[i]= 0;
+		size--;
+		return value;
+	}
+
+
+	/**
+	 * Number of keys in the map.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * Double the table and reinsert every entry.
+	 */
+	private void grow()
+	{
+		long [] oldKeys= keys;
+		int [] oldValues= values;
+		if (oldKeys.length==LongHashSet.MAX_CAPACITY)
+			throw new IllegalStateException("LongIntMap is full");
+		allocate(oldKeys.length*2);
+		for (int j=0; j<oldKeys.length; j++)
+			if (oldKeys[j]!=0) {
+				int i= (int) Puzzle.mix(oldKeys[j]) & mask;
+				while (keys[i]!=0)
+					i= (i+1) & mask;
+				keys[i]= oldKeys[j];
+				values[i]= oldValues[j];
+			}
+	}
+
+
+	private void allocate(int capacity)
+	{
+		keys= new long[capacity];
+		values= new int[capacity];
+		mask= capacity-1;
+		limit= (int) Math.min(capacity*(double) loadFactor,capacity-1);
+	}
+}
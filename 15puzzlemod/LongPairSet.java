@@ -0,0 +1,127 @@
+/**
+ * Set of pairs of longs using open addressing with linear probing.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>LongHashSet for two-word states (see WidePuzzle). A slot is two
+ * adjacent longs in one array, so a probe reads both words from the same
+ * cache line and an entry costs 16 bytes divided by the load factor. The
+ * pair (0, 0) marks an empty slot and is tracked by a separate flag. Pairs
+ * are spread with WidePuzzle.mix.</p>
+ */
+public class LongPairSet
+{
+	public static final int MAX_CAPACITY= 1<<29; // most slots, at two longs apiece
+
+	private long [] keys;    // slot i is keys[2i] (lo) and keys[2i+1] (hi), 0 and 0 if empty
+	private boolean hasZero; // whether the pair (0, 0) is in the set
+	private int size;        // pairs in the set
+	private int mask;        // slots-1
+	private int limit;       // grow when size passes this
+	private float loadFactor;// fraction of slots we allow to fill
+
+	/**
+	 * Create an empty set.
+	 *
+	 * @param capacity initial number of slots (rounded up to a power of two)
+	 * @param loadFactor fraction of slots to fill before doubling, 0 to 1
+	 */
+	public LongPairSet(int capacity, float loadFactor)
+	{
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("load factor must be between 0 and 1");
+		this.loadFactor= loadFactor;
+		allocate(Math.max(2,Integer.highestOneBit(Math.min(capacity,MAX_CAPACITY)-1)<<1));
+	}
+
+
+	/**
+	 * Add a pair.
+	 *
+	 * @param lo first word
+	 * @param hi second word
+	 * @return true if the pair was not already present
+	 */
+	public boolean add(long lo, long hi)
+	{
+		if (lo==0 && hi==0) {
+			if (hasZero)
+				return false;
+			hasZero= true;
+			size++;
+			return true;
+		}
+
+		int i= (int) WidePuzzle.mix(lo,hi) & mask;
+		while (keys[2*i]!=0 || keys[2*i+1]!=0) {
+			if (keys[2*i]==lo && keys[2*i+1]==hi)
+				return false;
+			i= (i+1) & mask;
+		}
+		keys[2*i]= lo;
+		keys[2*i+1]= hi;
+		if (++size > limit)
+			grow();
+		return true;
+	}
+
+
+	/**
+	 * Check for a pair.
+	 *
+	 * @param lo first word
+	 * @param hi second word
+	 * @return true if the pair is present
+	 */
+	public boolean contains(long lo, long hi)
+	{
+		if (lo==0 && hi==0)
+			return hasZero;
+
+		int i= (int) WidePuzzle.mix(lo,hi) & mask;
+		while (keys[2*i]!=0 || keys[2*i+1]!=0) {
+			if (keys[2*i]==lo && keys[2*i+1]==hi)
+				return true;
+			i= (i+1) & mask;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Number of pairs in the set.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+
+	/**
+	 * Double the table and reinsert every pair.
+	 */
+	private void grow()
+	{
+		long [] old= keys;
+		if (old.length/2==MAX_CAPACITY)
+			throw new IllegalStateException("LongPairSet is full");
+		allocate(old.length);
+		for (int j=0; j<old.length; j+= 2)
+			if (old[j]!=0 || old[j+1]!=0) {
+				int i= (int) WidePuzzle.mix(old[j],old[j+1]) & mask;
+				while (keys[2*i]!=0 || keys[2*i+1]!=0)
+					i= (i+1) & mask;
+				keys[2*i]= old[j];
+				keys[2*i+1]= old[j+1];
+			}
+	}
+
+
+	private void allocate(int capacity)
+	{
+		keys= new long[2*capacity];
+		mask= capacity-1;
+		limit= (int) Math.min(capacity*(double) loadFactor,capacity-1);
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Classic Manhattan distance: how far each tile is from its goal cell.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Distances come from a table of every tile at every cell, measured to
+ * the tile's cell in the puzzle's goal. A move changes only the moved
+ * tile's distance, so update is constant time.</p>
+ */
+public class ManhattanHeuristic implements Heuristic
+{
+	protected Puzzle puzzle; // dimensions and state layout
+	protected int [] home;   // cell of each tile in the goal
+	private int [] dist;     // distance of tile t at cell p: dist[t*n+p]
+
+	/**
+	 * Build the distance table for a puzzle.
+	 *
+	 * @param puzzle dimensions of the boards to estimate
+	 */
+	public ManhattanHeuristic(Puzzle puzzle)
+	{
+		int n= puzzle.size(), cols= puzzle.getCols();
+		this.home= new int[n];
+		this.puzzle= puzzle;
+		for (int p=0; p<n; p++)
+			home[puzzle.tile(puzzle.getGoal(),p)]= p;
+
+		// the blank's row stays zero so it never counts toward the distance
+		this.dist= new int[n*n];
+		for (int t=0; t<puzzle.getBlank(); t++)
+			for (int p=0; p<n; p++)
+				dist[t*n+p]= Math.abs(p/cols-home[t]/cols) + Math.abs(p%cols-home[t]%cols);
+	}
+
+
+	/**
+	 * Manhattan distance of a tile from its goal cell.
+	 *
+	 * @param tile tile value
+	 * @param pos cell the tile occupies
+	 * @return distance in moves (always 0 for the blank)
+	 */
+	public int distance(int tile, int pos)
+	{
+		return dist[tile*puzzle.size()+pos];
+	}
+
+
+	@Override
+	public int estimate(long state)
+	{
+		int h= 0;
+		for (int i=0; i<puzzle.size(); i++)
+			h+= distance(puzzle.tile(state,i),i);
+		return h;
+	}
+
+
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		return h - distance(tile,from) + distance(tile,to);
+	}
+}
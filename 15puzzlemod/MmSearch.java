@@ -0,0 +1,307 @@
+/**
+ * Bidirectional search that meets in the middle (MM).
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>One frontier grows forwards from the start board and one backwards
+ * from the goal, whose boards are estimated towards the start (see
+ * Puzzle's goal constructor) by the same kind of heuristic the puzzle
+ * uses. That has to be one that takes any goal: manhattan, linear
+ * conflicts or walking distance. Pattern databases and perimeters only
+ * know the usual goal, so they are refused. Each frontier orders its boards by
+ * max(f, 2g), so neither looks past the midpoint of an optimal path, and
+ * every step expands the frontier with the lower priority.</p>
+ *
+ * <p>Whenever a board is generated that the other frontier has already
+ * reached, the two half-paths make a solution. The cheapest one so far is
+ * kept until no open board can lead to a cheaper one: that is, until its
+ * length is at most the lowest priority, either frontier's lowest f, or
+ * the two frontiers' lowest g added together plus one move.</p>
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+public class MmSearch
+{
+	private Puzzle puzzle;    // forward puzzle, with the usual goal
+	private TieBreak tie;     // order of equal-priority boards
+	private float loadFactor; // for each frontier's table of reached states
+	private BooleanSupplier stop= () -> false; // asked to give up early
+	private long states;      // boards generated by the last search
+	private long duplicates;  // of which were already reached as cheaply
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param puzzle puzzle the start boards belong to
+	 * @param tie how each frontier orders boards of equal priority
+	 * @param loadFactor how full each frontier's table gets before growing
+	 */
+	public MmSearch(Puzzle puzzle, TieBreak tie, float loadFactor)
+	{
+		Class<?> kind= puzzle.getHeuristic().getClass();
+		if (kind!=ManhattanHeuristic.class && kind!=LinearConflictHeuristic.class && kind!=WalkingDistanceHeuristic.class)
+			throw new IllegalArgumentException("MM cannot estimate towards the start with "+kind.getSimpleName());
+		this.puzzle= puzzle;
+		this.tie= tie;
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Give the search a way to be stopped early.
+	 *
+	 * @param stop checked every thousand or so expansions; true means give up
+	 */
+	public void setStop(BooleanSupplier stop)
+	{
+		this.stop= stop;
+	}
+
+
+	/**
+	 * Search from a board until an optimal solution is proven.
+	 *
+	 * @param start board to solve
+	 * @return goal board linked back to start, or null if there is none
+	 * or the search was stopped
+	 */
+	public Board search(Board start)
+	{
+		states= 0;
+		duplicates= 0;
+		if (start.isGoal())
+			return start;
+
+		char [] home= new char[puzzle.size()];
+		for (int i=0; i<home.length; i++)
+			home[i]= (char) puzzle.tile(puzzle.getGoal(),i);
+		Puzzle backward= towards(start.getState());
+
+		Frontier forth= new Frontier(start);
+		Frontier back= new Frontier(new Board(home,backward));
+		int best= Integer.MAX_VALUE;  // length of the cheapest solution so far
+		Board meetForth= null, meetBack= null;
+		long expansions= 0;
+
+		while (!forth.isEmpty() && !back.isEmpty()) {
+			if ((++expansions & 1023)==0 && stop.getAsBoolean())
+				return null;
+			int c= Math.min(forth.minPriority(),back.minPriority());
+			int lower= Math.max(Math.max(c,forth.minCost()),
+				Math.max(back.minCost(),forth.minSteps()+back.minSteps()+1));
+			if (best <= lower)
+				break;
+
+			boolean forwards= forth.minPriority() <= back.minPriority();
+			Frontier from= forwards ? forth : back;
+			Frontier to= forwards ? back : forth;
+			Board curr= from.pop();
+			if (curr==null)
+				continue; // only stale entries were left
+
+			int steps= curr.getSteps();
+			for (int moves= curr.legalMoves(); moves!=0; moves&= moves-1) {
+				char dir= Puzzle.MOVES.charAt(Integer.numberOfTrailingZeros(moves));
+				Board next= curr.movePiece(dir,steps);
+				states++;
+				if (!from.add(next)) {
+					duplicates++;
+					continue;
+				}
+				Board other= to.reached(next.getState());
+				if (other!=null && next.getSteps()+other.getSteps() < best) {
+					best= next.getSteps()+other.getSteps();
+					meetForth= forwards ? next : other;
+					meetBack= forwards ? other : next;
+				}
+			}
+		}
+		return meetForth==null ? null : stitch(meetForth,meetBack);
+	}
+
+
+	/**
+	 * Puzzle solving back towards a start state, estimated by the same
+	 * kind of heuristic as ours.
+	 */
+	private Puzzle towards(long start)
+	{
+		int rows= puzzle.getRows(), cols= puzzle.getCols();
+		Puzzle layout= new Puzzle(rows,cols,start,null);
+		Heuristic kind= puzzle.getHeuristic();
+		if (kind instanceof LinearConflictHeuristic)
+			return new Puzzle(rows,cols,start,new LinearConflictHeuristic(layout));
+		if (kind instanceof WalkingDistanceHeuristic)
+			return new Puzzle(rows,cols,start,new WalkingDistanceHeuristic(layout));
+		return layout;
+	}
+
+
+	/**
+	 * Boards generated by the last search, in both directions.
+	 */
+	public long getStates()
+	{
+		return states;
+	}
+
+
+	/**
+	 * Generated boards dropped because their frontier had already reached
+	 * them at no greater cost.
+	 */
+	public long getDuplicates()
+	{
+		return duplicates;
+	}
+
+
+	/**
+	 * Join two half-paths that end on the same state.
+	 *
+	 * @param forth board reached from the start
+	 * @param back board with the same tiles reached from the goal
+	 * @return goal board linked back through forth to the start
+	 *
+	 * <p>Retraces the backward half from its end, undoing each of its moves
+	 * on top of the forward half.</p>
+	 */
+	private Board stitch(Board forth, Board back)
+	{
+		Board b= forth;
+		for (Board p= back; p.getPrev()!=null; p= p.getPrev())
+			b= b.movePiece(opposite(p.getDir()),b.getSteps());
+		return b;
+	}
+
+
+	private static char opposite(char dir)
+	{
+		switch (dir) {
+			case 'U': return 'D';
+			case 'D': return 'U';
+			case 'L': return 'R';
+			case 'R': return 'L';
+			default:  return dir;
+		}
+	}
+
+
+	/**
+	 * Open list and reached states of one direction.
+	 *
+	 * <p>A board reached again more cheaply is pushed again and the old
+	 * entry is skipped when it comes out. The old entry still counts
+	 * towards the lowest f and g, but the new one is lower on both, so the
+	 * minimums are unaffected.</p>
+	 */
+	private class Frontier
+	{
+		private BucketQueue<Board> open= new BucketQueue<Board>(tie);
+		private ArrayList<Board> boards= new ArrayList<Board>(); // cheapest board per state
+		private LongIntMap index= new LongIntMap(1<<16,loadFactor); // state -> boards
+		private int [] costs= new int[64]; // open boards with each f
+		private int [] steps= new int[64]; // open boards with each g
+		private int minCost;               // no open board has lower f
+		private int minSteps;              // no open board has lower g
+
+		Frontier(Board root)
+		{
+			add(root);
+		}
+
+
+		/**
+		 * Reach a board, unless its state was reached at no greater cost.
+		 *
+		 * @return true if the board was queued
+		 */
+		boolean add(Board b)
+		{
+			int i= index.get(b.getState(),-1);
+			if (i >= 0 && boards.get(i).getSteps() <= b.getSteps())
+				return false;
+			if (i >= 0)
+				boards.set(i,b);
+			else {
+				index.put(b.getState(),boards.size());
+				boards.add(b);
+			}
+
+			open.push(b,priority(b),b.getSteps());
+			costs= count(costs,b.getCost(),1);
+			steps= count(steps,b.getSteps(),1);
+			minCost= Math.min(minCost,b.getCost());
+			minSteps= Math.min(minSteps,b.getSteps());
+			return true;
+		}
+
+
+		/**
+		 * Take the open board of lowest priority.
+		 *
+		 * @return the board, or null if it was superseded
+		 */
+		Board pop()
+		{
+			Board b= open.pop();
+			costs[b.getCost()]--;
+			steps[b.getSteps()]--;
+			return reached(b.getState())==b ? b : null;
+		}
+
+
+		/**
+		 * Cheapest board reached with a given state.
+		 *
+		 * @return the board, or null if the state has not been reached
+		 */
+		Board reached(long state)
+		{
+			int i= index.get(state,-1);
+			return i < 0 ? null : boards.get(i);
+		}
+
+
+		int minPriority() { return open.minCost(); }
+		boolean isEmpty() { return open.isEmpty(); }
+
+		int minCost()
+		{
+			while (costs[minCost]==0)
+				minCost++;
+			return minCost;
+		}
+
+		int minSteps()
+		{
+			while (steps[minSteps]==0)
+				minSteps++;
+			return minSteps;
+		}
+	}
+
+
+	/**
+	 * MM's priority: f, but never less than twice g.
+	 */
+	private static int priority(Board b)
+	{
+		return Math.max(b.getCost(),2*b.getSteps());
+	}
+
+
+	/**
+	 * Adjust a histogram entry, growing the histogram if need be.
+	 */
+	private static int [] count(int [] counts, int i, int delta)
+	{
+		if (i >= counts.length)
+			counts= Arrays.copyOf(counts,Math.max(i+1,2*counts.length));
+		counts[i]+= delta;
+		return counts;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Search nodes kept in parallel primitive arrays and addressed by index.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>A Board costs an object header, six fields and a reference to its
+ * parent, and the parent links keep every board alive until the search
+ * ends anyway. Here a node is its packed state, its parent's index and one
+ * int holding g, h, the blank's cell and the move that led to it: 16 bytes,
+ * with nothing for the garbage collector to trace.</p>
+ *
+ * <p>Packed info: g in the top 13 bits, then a flag set when h was raised
+ * above the search's cheap heuristic, the number of lazy heuristics looked
+ * at so far (2 bits), h (8 bits), the blank's cell (6 bits) and the move
+ * (2 bits, an index into Puzzle.MOVES).</p>
+ */
+import java.util.Arrays;
+
+public class NodeArena
+{
+	public static final int NO_PARENT= -1; // parent index of a root node
+	public static final int MAX_LEVEL= 3;  // lazy heuristics a node can record
+	private static final int RAISED= 1<<18;// h is above the cheap heuristic's
+
+	private long [] states; // packed state of each node
+	private int [] parents; // index of each node's parent, or NO_PARENT
+	private int [] info;    // g, h, blank and move, packed as above
+	private int size;       // nodes added so far
+
+	/**
+	 * Create an empty arena.
+	 *
+	 * @param capacity nodes to make room for up front
+	 */
+	public NodeArena(int capacity)
+	{
+		capacity= Math.max(capacity,16);
+		states= new long[capacity];
+		parents= new int[capacity];
+		info= new int[capacity];
+	}
+
+
+	/**
+	 * Add a node.
+	 *
+	 * @param state packed state
+	 * @param parent index of the node it was reached from, or NO_PARENT
+	 * @param g moves from the root
+	 * @param h estimated moves to the goal, 0 to 255
+	 * @param blank cell holding the blank, 0 to 63
+	 * @param move index into Puzzle.MOVES of the move that led here
+	 * @return the new node's index
+	 */
+	public int add(long state, int parent, int g, int h, int blank, int move)
+	{
+		return add(state,parent,g<<19 | h<<8 | blank<<2 | move);
+	}
+
+
+	/**
+	 * Add a node whose info is packed already, as info returns it.
+	 *
+	 * @param state packed state
+	 * @param parent index of the node it was reached from, or NO_PARENT
+	 * @param packed g, h, blank and move, packed as above
+	 * @return the new node's index
+	 */
+	public int add(long state, int parent, int packed)
+	{
+		if (size==states.length) {
+			if (size==Integer.MAX_VALUE-8)
+				throw new IllegalStateException("NodeArena is full");
+			int len= (int) Math.min(2L*size,Integer.MAX_VALUE-8);
+			states= Arrays.copyOf(states,len);
+			parents= Arrays.copyOf(parents,len);
+			info= Arrays.copyOf(info,len);
+		}
+		states[size]= state;
+		parents[size]= parent;
+		info[size]= packed;
+		return size++;
+	}
+
+
+	/**
+	 * Record lazy heuristics looked at for a node, and any better estimate.
+	 *
+	 * @param i node to update
+	 * @param level lazy heuristics evaluated so far, at most MAX_LEVEL
+	 * @param h new estimate; if above the one stored, it replaces it and the
+	 * node is marked raised
+	 */
+	public void lift(int i, int level, int h)
+	{
+		int bits= info[i] & ~(3<<16) | level<<16;
+		if (h > h(i))
+			bits= bits & ~(0xFF<<8) | h<<8 | RAISED;
+		info[i]= bits;
+	}
+
+
+	/**
+	 * Reattach a node to a cheaper parent; its state, h and blank stay.
+	 *
+	 * @param i node to update
+	 * @param parent index of the node it is now reached from
+	 * @param g moves from the root along the new path
+	 * @param move index into Puzzle.MOVES of the move from parent
+	 */
+	public void relink(int i, int parent, int g, int move)
+	{
+		parents[i]= parent;
+		info[i]= g<<19 | info[i] & ((1<<19)-4) | move;
+	}
+
+
+	/**
+	 * Directions taken to reach a node, following its parents.
+	 *
+	 * @param end last node on the path
+	 * @param first direction to put before the moves (X for a new board)
+	 * @return one direction per node, starting with first
+	 */
+	public String path(int end, char first)
+	{
+		StringBuilder sb= new StringBuilder();
+		for (int i= end; parents[i]!=NO_PARENT; i= parents[i])
+			sb.append(Puzzle.MOVES.charAt(move(i)));
+		return sb.append(first).reverse().toString();
+	}
+
+
+	public long state(int i) { return states[i]; }
+	public int parent(int i) { return parents[i]; }
+	public int info(int i) { return info[i]; }
+	public int g(int i) { return info[i] >>> 19; }
+	public int h(int i) { return (info[i] >>> 8) & 0xFF; }
+	public int f(int i) { return g(i)+h(i); }
+	public int blank(int i) { return (info[i] >>> 2) & 0x3F; }
+	public int move(int i) { return info[i] & 3; }
+	public int level(int i) { return (info[i] >>> 16) & 3; }
+	public boolean raised(int i) { return (info[i] & RAISED)!=0; }
+	public int size() { return size; }
+}
@@ -0,0 +1,99 @@
+/**
+ * Table from packed states to the NodeArena nodes holding them, using open
+ * addressing with linear probing.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>The table indexes every node of its arena, in the order they were
+ * added, so a node's index is below the table's capacity and a slot is a
+ * single int: the node in the low bits, and as many bits of the state's
+ * hash as are left over above it. Only a slot whose hash bits match has
+ * its node's state looked up in the arena; probing past other states
+ * stays inside the table. That is 4 bytes a slot where a LongIntMap needs
+ * 12, and A*'s table of reached states is as big as its arena. Growing
+ * rereads the states from the arena too.</p>
+ */
+public class NodeIndex
+{
+	private NodeArena nodes; // where the keys live
+	private int [] slots;    // hash bits over node, 0 if empty
+	private int bits;        // log2 of the capacity, the bits a node takes
+	private int mask;        // slots.length-1
+	private int limit;       // grow before the arena passes this
+	private float loadFactor;// fraction of slots we allow to fill
+
+	/**
+	 * Index an arena's nodes, each of which must have a different state.
+	 *
+	 * @param nodes arena whose nodes go in the table, now and as they are added
+	 * @param loadFactor fraction of slots to fill before doubling, 0 to 1
+	 */
+	public NodeIndex(NodeArena nodes, float loadFactor)
+	{
+		if (!(loadFactor > 0 && loadFactor < 1))
+			throw new IllegalArgumentException("load factor must be between 0 and 1");
+		this.nodes= nodes;
+		this.loadFactor= loadFactor;
+		int capacity= 1<<16;
+		while (capacity < LongHashSet.MAX_CAPACITY && nodes.size() >= (int) (capacity*(double) loadFactor))
+			capacity*= 2;
+		allocate(capacity);
+	}
+
+
+	/**
+	 * Find a state's node, or claim the arena's next node for it.
+	 *
+	 * @param state packed state
+	 * @param missing value to return if the state is new
+	 * @return the state's node, or missing if it has just been added, in
+	 * which case the caller adds its node to the arena before using the
+	 * table again
+	 */
+	public int putIfAbsent(long state, int missing)
+	{
+		if (nodes.size() >= limit)
+			grow();
+		long hash= Puzzle.mix(state);
+		int tag= Integer.MIN_VALUE | (int) (hash >>> 32) << bits;
+		int i= (int) hash & mask;
+		for (int v; (v= slots[i])!=0; i= (i+1) & mask)
+			if ((v & ~mask)==tag && nodes.state(v & mask)==state)
+				return v & mask;
+		slots[i]= tag | nodes.size();
+		return missing;
+	}
+
+
+	/**
+	 * Double the table and reinsert every node, straight from the arena.
+	 */
+	private void grow()
+	{
+		if (slots.length==LongHashSet.MAX_CAPACITY)
+			throw new IllegalStateException("NodeIndex is full");
+		int capacity= slots.length*2;
+		slots= null; // let the old table go before the new one is made
+		allocate(capacity);
+	}
+
+
+	/**
+	 * Make an empty table and put every node of the arena in it.
+	 */
+	private void allocate(int capacity)
+	{
+		slots= new int[capacity];
+		bits= Integer.numberOfTrailingZeros(capacity);
+		mask= capacity-1;
+		limit= (int) Math.min(capacity*(double) loadFactor,capacity-1);
+		for (int node=0; node<nodes.size(); node++) {
+			long hash= Puzzle.mix(nodes.state(node));
+			int i= (int) hash & mask;
+			while (slots[i]!=0)
+				i= (i+1) & mask;
+			slots[i]= Integer.MIN_VALUE | (int) (hash >>> 32) << bits | node;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/**
+ * IDA* with each pass spread over the threads of a ForkJoinPool, on
+ * packed states.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>ForkJoinIdaStar runs the passes and splits their first few plies into
+ * tasks; below that, each task searches its subtree depth-first on packed
+ * states, just as Solver's IDA* would.</p>
+ */
+public class ParallelIdaStar extends ForkJoinIdaStar
+{
+	private Puzzle puzzle;       // layout, goal and heuristic
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param puzzle puzzle the start boards belong to
+	 * @param threads number of workers, or 0 for one per processor
+	 */
+	public ParallelIdaStar(Puzzle puzzle, int threads)
+	{
+		super(threads);
+		this.puzzle= puzzle;
+	}
+
+
+	/**
+	 * Search from a board until an optimal solution is found.
+	 *
+	 * @param start board to solve
+	 * @return goal board linked back to start, or null if there is none
+	 * or the search was stopped
+	 */
+	public Board search(Board start) throws InterruptedException
+	{
+		long state= start.getState();
+		int h= puzzle.estimate(state);
+		int bpos= puzzle.blankPosition(state);
+		String moves= run(h,() -> new PackedSubtree(state,h,bpos,-1,0));
+		return moves==null ? null : start.replay(start.getDir()+moves);
+	}
+
+
+	/**
+	 * The part of a pass below one packed state.
+	 */
+	@SuppressWarnings("serial")
+	private class PackedSubtree extends Subtree
+	{
+		private long state;   // board at the top of the subtree
+
+		PackedSubtree(long state, int h, int bpos, int last, int g)
+		{
+			super(h,bpos,last,g);
+			this.state= state;
+		}
+
+
+		@Override
+		protected boolean atGoal()
+		{
+			return state==puzzle.getGoal();
+		}
+
+
+		@Override
+		protected int successors()
+		{
+			return puzzle.successors(bpos,last);
+		}
+
+
+		@Override
+		protected Subtree child(int move)
+		{
+			int target= puzzle.target(bpos,move);
+			int tile= puzzle.tile(state,target);
+			long child= puzzle.slide(state,bpos,target);
+			return new PackedSubtree(child,puzzle.update(child,h,tile,target,bpos),target,move,g+1);
+		}
+
+
+		@Override
+		protected int search()
+		{
+			return dfs(state,h,bpos,last,g);
+		}
+
+
+		/**
+		 * Bounded depth-first search, as in Solver's IDA*.
+		 *
+		 * @return smallest f beyond bound, or anything once quit is set
+		 */
+		private int dfs(long state, int h, int bpos, int last, int g)
+		{
+			int f= g+h;
+			if (f > bound || stopping())
+				return f;
+			if (state==puzzle.getGoal()) {
+				found(g);
+				return f;
+			}
+
+			int min= Integer.MAX_VALUE;
+			for (int moves= puzzle.successors(bpos,last); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				int target= puzzle.target(bpos,move);
+				int tile= puzzle.tile(state,target);
+				long child= puzzle.slide(state,bpos,target);
+				generated++;
+				path[g]= Puzzle.MOVES.charAt(move);
+				int t= dfs(child,puzzle.update(child,h,tile,target,bpos),target,move,g+1);
+				if (quit)
+					return t;
+				min= Math.min(min,t);
+			}
+			return min;
+		}
+	}
+}
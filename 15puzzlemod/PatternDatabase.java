@@ -0,0 +1,235 @@
+/**
+ * Additive disjoint pattern database, memory-mapped from a file.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>The non-blank tiles are split into disjoint patterns. For each pattern
+ * a byte table gives, for every placement of that pattern's tiles, the
+ * fewest moves of those tiles needed to bring them home. Since only moves
+ * of a pattern's own tiles are counted, the tables can be added together
+ * and still never overestimate.</p>
+ *
+ * <p>File layout (big-endian): magic, rows, cols, pattern count, then each
+ * pattern as its size followed by its tiles, then the tables back to back.
+ * A placement is ranked as a partial permutation: the first tile's cell,
+ * then the second tile's cell among those left, and so on.</p>
+ */
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+public class PatternDatabase implements Heuristic
+{
+	public static final int MAGIC= 0x50444231; // "PDB1"
+
+	/** 6-6-3 partition of the 15-puzzle: left columns, right columns, bottom middle. */
+	public static final int [][] PARTITION_663= {
+		{0,1,4,5,8,12}, {2,3,6,7,10,11}, {9,13,14}
+	};
+
+	/** 7-8 partition of the 15-puzzle: top two rows and the rest. */
+	public static final int [][] PARTITION_78= {
+		{0,1,2,3,4,5,6,7}, {8,9,10,11,12,13,14}
+	};
+
+	private Puzzle puzzle;       // unpacks states
+	private int [][] patterns;   // tiles belonging to each pattern
+	private int [] patternOf;    // pattern holding each tile (-1 for blank)
+	private int [] slotOf;       // index of each tile within its pattern
+	private ByteBuffer [] tables;// moves needed for each ranked placement
+
+	/**
+	 * Wrap tables that are already loaded or mapped.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param patterns disjoint tile sets, one per table, that between them
+	 * hold every tile but the blank
+	 * @param tables one table per pattern
+	 */
+	public PatternDatabase(int rows, int cols, int [][] patterns, ByteBuffer [] tables)
+	{
+		this.puzzle= new Puzzle(rows,cols);
+		this.patterns= patterns;
+		this.tables= tables;
+		this.patternOf= new int[puzzle.size()];
+		this.slotOf= new int[puzzle.size()];
+		Arrays.fill(patternOf,-1);
+		for (int p=0; p<patterns.length; p++)
+			for (int s=0; s<patterns[p].length; s++) {
+				int t= patterns[p][s];
+				if (t < 0 || t >= puzzle.getBlank() || patternOf[t]!=-1)
+					throw new IllegalArgumentException("patterns must be disjoint non-blank tiles");
+				patternOf[t]= p;
+				slotOf[t]= s;
+			}
+		for (int t=0; t<puzzle.getBlank(); t++)
+			if (patternOf[t]==-1)
+				throw new IllegalArgumentException("tile "+t+" is in no pattern");
+	}
+
+
+	/**
+	 * Memory-map a pattern database file.
+	 *
+	 * @param fileName file written by PatternDatabaseBuilder
+	 * @param rows number of rows on the boards to estimate
+	 * @param cols number of columns on the boards to estimate
+	 * @return database backed by the mapped file
+	 */
+	public static PatternDatabase load(String fileName, int rows, int cols) throws IOException
+	{
+		int [][] patterns;
+		long offset;
+
+		try (DataInputStream in= new DataInputStream(new FileInputStream(fileName))) {
+			if (in.readInt()!=MAGIC)
+				throw new IOException(fileName+" is not a pattern database");
+			int r= in.readInt(), c= in.readInt();
+			if (r!=rows || c!=cols)
+				throw new IOException(fileName+" is for "+r+"x"+c+" boards");
+			patterns= new int[in.readInt()][];
+			offset= 16;
+			for (int p=0; p<patterns.length; p++) {
+				patterns[p]= new int[in.readInt()];
+				for (int s=0; s<patterns[p].length; s++)
+					patterns[p][s]= in.readInt();
+				offset+= 4*(patterns[p].length+1);
+			}
+		}
+
+		ByteBuffer [] tables= new ByteBuffer[patterns.length];
+		try (RandomAccessFile file= new RandomAccessFile(fileName,"r")) {
+			FileChannel channel= file.getChannel();
+			for (int p=0; p<patterns.length; p++) {
+				long size= tableSize(rows*cols,patterns[p].length);
+				tables[p]= channel.map(FileChannel.MapMode.READ_ONLY,offset,size);
+				offset+= size;
+			}
+		}
+		return new PatternDatabase(rows,cols,patterns,tables);
+	}
+
+
+	/**
+	 * Load a pattern database, building and saving it first if need be.
+	 *
+	 * @param fileName where the database lives
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param patterns partition to build if the file does not exist yet
+	 * @param scratch directory to build it on disk in (see ExternalBfs), or
+	 * null to build it in memory
+	 * @param megabytes memory an on-disk build may sort in
+	 * @return database backed by the mapped file
+	 */
+	public static PatternDatabase open(String fileName, int rows, int cols, int [][] patterns,
+		String scratch, int megabytes) throws IOException
+	{
+		if (!new File(fileName).exists()) {
+			PatternDatabaseBuilder builder= new PatternDatabaseBuilder(rows,cols);
+			builder.setScratch(scratch,megabytes);
+			builder.write(patterns,fileName);
+		}
+		return load(fileName,rows,cols);
+	}
+
+
+	/**
+	 * Number of entries in a table for k tiles on n cells, n!/(n-k)!.
+	 */
+	public static long tableSize(int n, int k)
+	{
+		long size= 1;
+		for (int i=0; i<k; i++)
+			size*= n-i;
+		return size;
+	}
+
+
+	/**
+	 * Rank a placement of k tiles given as packed 5-bit cell numbers.
+	 *
+	 * @param cells cell of slot i in bits 5i..5i+4
+	 * @param k number of tiles in the pattern
+	 * @param n number of cells on the board
+	 * @return index into the pattern's table
+	 */
+	public static int rank(long cells, int k, int n)
+	{
+		int idx= 0, used= 0;
+		for (int i=0; i<k; i++) {
+			int c= (int) (cells >>> (5*i)) & 0x1F;
+			idx= idx*(n-i) + c - Integer.bitCount(used & ((1<<c)-1));
+			used|= 1<<c;
+		}
+		return idx;
+	}
+
+
+	/**
+	 * Lower bound on moves to the goal: the sum of every pattern's entry.
+	 *
+	 * @param state packed state
+	 * @return additive pattern database estimate
+	 */
+	@Override
+	public int estimate(long state)
+	{
+		int h= 0;
+		for (int p=0; p<patterns.length; p++)
+			h+= lookup(p,cells(state,p));
+		return h;
+	}
+
+
+	/**
+	 * Estimate after a single tile moved, looking up only its pattern.
+	 *
+	 * @param state packed state after the move
+	 * @param h estimate before the move
+	 * @param tile tile that moved
+	 * @param from cell the tile left
+	 * @param to cell the tile moved into
+	 * @return estimate for state
+	 */
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		int p= patternOf[tile];
+		long now= cells(state,p);
+		long before= now & ~(0x1FL << (5*slotOf[tile])) | (long) from << (5*slotOf[tile]);
+		return h - lookup(p,before) + lookup(p,now);
+	}
+
+
+	/**
+	 * Cells holding one pattern's tiles, packed 5 bits per slot.
+	 */
+	private long cells(long state, int p)
+	{
+		long cells= 0;
+		for (int i=0; i<puzzle.size(); i++) {
+			int t= puzzle.tile(state,i);
+			if (patternOf[t]==p)
+				cells|= (long) i << (5*slotOf[t]);
+		}
+		return cells;
+	}
+
+
+	private int lookup(int p, long cells)
+	{
+		return tables[p].get(rank(cells,patterns[p].length,puzzle.size())) & 0xFF;
+	}
+
+
+	public int getRows() { return puzzle.getRows(); }
+	public int getCols() { return puzzle.getCols(); }
+}
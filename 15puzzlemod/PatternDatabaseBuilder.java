@@ -0,0 +1,328 @@
+/**
+ * Builds additive pattern database tables by retrograde breadth-first search.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>The search runs backwards from the goal over placements of one
+ * pattern's tiles plus the blank. Only moves of pattern tiles cost a move;
+ * the blank wanders freely among the other cells, so a state records just
+ * the lowest cell of the region the blank can reach. Each placement's table
+ * entry is the layer at which it is first reached.</p>
+ *
+ * <p>The visited set and both layers are bit sets of placements x cells, so
+ * a 6-tile 15-puzzle pattern needs about 35MB and a 7-tile one about 350MB.
+ * An 8-tile pattern is beyond what this in-memory search can hold; given a
+ * scratch directory, the search keeps its layers on disk instead (see
+ * ExternalBfs) and needs only the memory it is allowed for sorting.</p>
+ *
+ * To build the default tables: java PatternDatabaseBuilder pdb663.dat
+ * or the 7-8 split: java PatternDatabaseBuilder pdb78.dat 78
+ * or either on disk, sorting 512MB at a time: java PatternDatabaseBuilder pdb78.dat 78 -disk /tmp -mem 512
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class PatternDatabaseBuilder
+{
+	private int rows,cols;  // board size in rows/cols
+	private int n;          // number of cells
+	private int full;       // mask of all cells
+	private int firstCol;   // mask of cells in the leftmost column
+	private int lastCol;    // mask of cells in the rightmost column
+	private String scratch; // directory for an on-disk search, or null to search in memory
+	private int memory;     // megabytes the on-disk search may sort at once
+
+	/**
+	 * Constructor based on board dimensions.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 */
+	public PatternDatabaseBuilder(int rows, int cols)
+	{
+		if (rows < 1 || cols < 1 || rows*cols > 30)
+			throw new IllegalArgumentException("cell masks hold at most 30 cells");
+		this.rows= rows;
+		this.cols= cols;
+		this.n= rows*cols;
+		this.full= (1<<n)-1;
+		for (int r=0; r<rows; r++) {
+			firstCol|= 1 << (r*cols);
+			lastCol|= 1 << (r*cols+cols-1);
+		}
+	}
+
+
+	/**
+	 * Search on disk instead of in memory, for patterns too big to hold.
+	 *
+	 * @param dir directory for the search's layer files, or null to search
+	 * in memory
+	 * @param megabytes memory to sort generated states in, at least 1
+	 */
+	public void setScratch(String dir, int megabytes)
+	{
+		this.scratch= dir;
+		this.memory= megabytes;
+	}
+
+
+	/**
+	 * Build every pattern's table and save them in one file.
+	 *
+	 * @param patterns disjoint sets of tiles holding every tile but the blank
+	 * @param fileName file to create (see PatternDatabase for the layout)
+	 */
+	public void write(int [][] patterns, String fileName) throws IOException
+	{
+		boolean [] seen= new boolean[n];
+		for (int [] pattern : patterns)
+			for (int t : pattern) {
+				if (t < 0 || t >= n-1 || seen[t])
+					throw new IllegalArgumentException("patterns must be disjoint non-blank tiles");
+				seen[t]= true;
+			}
+		for (int t=0; t<n-1; t++)
+			if (!seen[t])
+				throw new IllegalArgumentException("tile "+t+" is in no pattern");
+
+		int header= 16;
+		for (int [] pattern : patterns)
+			header+= 4*(pattern.length+1);
+		ByteBuffer buf= ByteBuffer.allocate(header);
+		buf.putInt(PatternDatabase.MAGIC).putInt(rows).putInt(cols).putInt(patterns.length);
+		for (int [] pattern : patterns) {
+			buf.putInt(pattern.length);
+			for (int t : pattern)
+				buf.putInt(t);
+		}
+
+		try (FileChannel out= FileChannel.open(Paths.get(fileName),StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)) {
+			buf.flip();
+			while (buf.hasRemaining())
+				out.write(buf);
+			for (int [] pattern : patterns)
+				if (scratch!=null)
+					new ExternalBfs(this,scratch,memory).writeTable(pattern,out);
+				else {
+					ByteBuffer table= ByteBuffer.wrap(buildTable(pattern));
+					while (table.hasRemaining())
+						out.write(table);
+				}
+		}
+	}
+
+
+	/**
+	 * Run the retrograde search for one pattern.
+	 *
+	 * @param pattern tiles in the pattern, in slot order
+	 * @return moves needed for each ranked placement of the pattern's tiles
+	 */
+	public byte [] buildTable(int [] pattern)
+	{
+		int k= pattern.length;
+		long size= PatternDatabase.tableSize(n,k);
+		if (size > Integer.MAX_VALUE || size*n > (long) Integer.MAX_VALUE*64)
+			throw new IllegalArgumentException(k+"-tile pattern is too large to build in memory");
+
+		byte [] table= new byte[(int) size];
+		long [] visited= new long[(int) ((size*n+63) >>> 6)];
+		long [] current= new long[visited.length];
+		long [] next= new long[visited.length];
+		long [] swap;
+		long [] out= new long[4*n];
+		Arrays.fill(table,(byte) -1);
+
+		long start= start(pattern);
+		set(visited,start);
+		set(current,start);
+		table[(int) (start/n)]= 0;
+
+		for (int depth= 1; ; depth++) {
+			boolean any= false;
+			for (int w=0; w<current.length; w++) {
+				long word= current[w];
+				current[w]= 0;
+				while (word!=0) {
+					int count= successors(((long) w << 6) + Long.numberOfTrailingZeros(word),k,out);
+					for (int m=0; m<count; m++) {
+						long j= out[m];
+						if (!get(visited,j)) {
+							set(visited,j);
+							set(next,j);
+							if (table[(int) (j/n)]==-1)
+								table[(int) (j/n)]= (byte) depth;
+						}
+					}
+					word&= word-1;
+					any= true;
+				}
+			}
+			if (!any)
+				break;
+			swap= current;
+			current= next;
+			next= swap;
+		}
+		return table;
+	}
+
+
+	/**
+	 * State the search starts from: the pattern's tiles at home and the
+	 * blank in the bottom right corner.
+	 *
+	 * @param pattern tiles in the pattern, in slot order
+	 * @return placement rank * n + lowest cell of the blank's region
+	 */
+	long start(int [] pattern)
+	{
+		long cells= 0;
+		int occupied= 0;
+		for (int s=0; s<pattern.length; s++) {
+			cells|= (long) pattern[s] << (5*s);
+			occupied|= 1 << pattern[s];
+		}
+		return (long) PatternDatabase.rank(cells,pattern.length,n)*n
+			+ Integer.numberOfTrailingZeros(flood(n-1,occupied));
+	}
+
+
+	/**
+	 * Every state one pattern move away from state i.
+	 *
+	 * @param i placement rank * n + lowest cell of the blank's region
+	 * @param k number of tiles in the pattern
+	 * @param out where to put them; 4n of them at most
+	 * @return how many there are
+	 */
+	int successors(long i, int k, long [] out)
+	{
+		int count= 0;
+		long cells= unrank((int) (i/n),k);
+		int occupied= 0;
+		for (int s=0; s<k; s++)
+			occupied|= 1 << cell(cells,s);
+
+		for (int region= flood((int) (i%n),occupied); region!=0; region&= region-1) {
+			int c= Integer.numberOfTrailingZeros(region);
+			for (int adj= neighbours(1<<c) & occupied; adj!=0; adj&= adj-1) {
+				int q= Integer.numberOfTrailingZeros(adj);
+				int s= 0;
+				while (cell(cells,s)!=q)
+					s++;
+
+				// tile in slot s slides from q into the blank at c
+				long moved= cells & ~(0x1FL << (5*s)) | (long) c << (5*s);
+				out[count++]= (long) PatternDatabase.rank(moved,k,n)*n
+					+ Integer.numberOfTrailingZeros(flood(q,occupied ^ (1<<q) ^ (1<<c)));
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Inverse of PatternDatabase.rank.
+	 *
+	 * @param config placement rank
+	 * @param k number of tiles in the pattern
+	 * @return cell of slot i in bits 5i..5i+4
+	 */
+	private long unrank(int config, int k)
+	{
+		long digits= 0, cells= 0;
+		int used= 0;
+		for (int i=k-1; i>=0; i--) {
+			digits|= (long) (config % (n-i)) << (5*i);
+			config/= n-i;
+		}
+		for (int i=0; i<k; i++) {
+			int d= cell(digits,i), c= 0;
+			while (d > 0 || (used & (1<<c))!=0) {
+				if ((used & (1<<c))==0)
+					d--;
+				c++;
+			}
+			cells|= (long) c << (5*i);
+			used|= 1<<c;
+		}
+		return cells;
+	}
+
+
+	/**
+	 * Cells the blank can reach from start without moving occupied cells.
+	 */
+	private int flood(int start, int occupied)
+	{
+		int free= full & ~occupied;
+		int region= 1<<start, grown;
+		while ((grown= (region | neighbours(region)) & free)!=region)
+			region= grown;
+		return region;
+	}
+
+
+	/**
+	 * Cells next to any cell in mask.
+	 */
+	private int neighbours(int mask)
+	{
+		return (mask >>> cols) | ((mask << cols) & full)
+			| ((mask & ~firstCol) >>> 1) | ((mask & ~lastCol) << 1);
+	}
+
+
+	int size() { return n; }
+
+
+	private static int cell(long cells, int slot)
+	{
+		return (int) (cells >>> (5*slot)) & 0x1F;
+	}
+
+	private static boolean get(long [] bits, long i)
+	{
+		return (bits[(int) (i >>> 6)] & (1L << i))!=0;
+	}
+
+	private static void set(long [] bits, long i)
+	{
+		bits[(int) (i >>> 6)]|= 1L << i;
+	}
+
+
+	public static void main(String [] args) throws IOException
+	{
+		if (args.length < 1) {
+			System.out.println("usage: java PatternDatabaseBuilder file [663|78] [-disk dir [-mem MB]]");
+			return;
+		}
+		int [][] patterns= PatternDatabase.PARTITION_663;
+		String scratch= null;
+		int megabytes= 256;
+		for (int i=1; i<args.length; i++)
+			if (args[i].equals("78"))
+				patterns= PatternDatabase.PARTITION_78;
+			else if (args[i].equals("-disk"))
+				scratch= args[++i];
+			else if (args[i].equals("-mem"))
+				megabytes= Integer.parseInt(args[++i]);
+
+		Timer timer= new Timer();
+		timer.start();
+		PatternDatabaseBuilder builder= new PatternDatabaseBuilder(4,4);
+		builder.setScratch(scratch,megabytes);
+		builder.write(patterns,args[0]);
+		timer.stop();
+		System.out.println("wrote "+args[0]+" ("+timer+" seconds)");
+	}
+}
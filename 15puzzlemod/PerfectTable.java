@@ -0,0 +1,350 @@
+/**
+ * Distance to the goal and best first move for every state of a small
+ * puzzle, memory-mapped from a file.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>With at most 12 cells every arrangement fits in one array indexed by
+ * its Myrvold-Ruskey permutation rank (12! is just under 500 million). A
+ * breadth-first search from the goal fills in each reachable arrangement's
+ * distance and the move that heads back towards the goal, so a board is
+ * solved by following those moves: no search at all.</p>
+ *
+ * <p>Each entry is one byte, distance in the top six bits and move (an index
+ * into Puzzle.MOVES) in the low two; 0xFF marks an arrangement the goal
+ * cannot reach. Six bits hold distances up to 62 (63 with the last move
+ * would read as 0xFF). That covers every board that fits in 3x4 or 4x3,
+ * whose longest optimal solution is 53 moves, but not 2x6, which needs
+ * 80; so only those shapes are allowed, and build fails rather than
+ * write a distance that does not fit.</p>
+ *
+ * <p>File layout (big-endian): magic, rows, cols, then the entries in rank
+ * order. The search runs on the mapped file itself, one layer per pass
+ * over the table, so the heap needs no room for it.</p>
+ *
+ * To build a table: java PerfectTable 3 3 table33.dat
+ */
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class PerfectTable implements Heuristic
+{
+	public static final int MAGIC= 0x50535431; // "PST1"
+	public static final int MAX_CELLS= 12;     // 12! entries still fit in an int index
+	private static final int HEADER= 12;       // bytes before the first entry
+	private static final int UNREACHED= 0xFF;  // entry of an unreachable arrangement
+	private static final int MAX_DEPTH= 62;    // farthest distance an entry holds apart from UNREACHED
+
+	private Puzzle puzzle;   // layout of the states looked up
+	private ByteBuffer table;// one entry per ranked arrangement
+
+	/**
+	 * Wrap a table that is already loaded or mapped.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param table rows*cols! entries in rank order
+	 */
+	public PerfectTable(int rows, int cols, ByteBuffer table)
+	{
+		this.puzzle= new Puzzle(rows,cols);
+		this.table= table;
+	}
+
+
+	/**
+	 * Memory-map a table file.
+	 *
+	 * @param fileName file written by build
+	 * @param rows number of rows on the boards to solve
+	 * @param cols number of columns on the boards to solve
+	 * @return table backed by the mapped file
+	 */
+	public static PerfectTable load(String fileName, int rows, int cols) throws IOException
+	{
+		checkShape(rows,cols);
+		try (DataInputStream in= new DataInputStream(new FileInputStream(fileName))) {
+			if (in.readInt()!=MAGIC)
+				throw new IOException(fileName+" is not a perfect table");
+			int r= in.readInt(), c= in.readInt();
+			if (r!=rows || c!=cols)
+				throw new IOException(fileName+" is for "+r+"x"+c+" boards");
+		}
+		try (RandomAccessFile file= new RandomAccessFile(fileName,"r")) {
+			long size= factorial(rows*cols);
+			if (file.length()!=HEADER+size)
+				throw new IOException(fileName+" is incomplete");
+			return new PerfectTable(rows,cols,file.getChannel().map(FileChannel.MapMode.READ_ONLY,HEADER,size));
+		}
+	}
+
+
+	/**
+	 * Load a table, building and saving it first if need be.
+	 *
+	 * @param fileName where the table lives
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @return table backed by the mapped file
+	 */
+	public static PerfectTable open(String fileName, int rows, int cols) throws IOException
+	{
+		if (!new File(fileName).exists())
+			build(rows,cols,fileName);
+		return load(fileName,rows,cols);
+	}
+
+
+	/**
+	 * Breadth-first search the whole state space and save the table.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 * @param fileName file to create
+	 */
+	public static void build(int rows, int cols, String fileName) throws IOException
+	{
+		checkShape(rows,cols);
+		int n= rows*cols;
+		Puzzle puzzle= new Puzzle(rows,cols);
+		long size= factorial(n);
+		int [] perm= new int[n];
+		int [] work= new int[2*n];
+
+		try (RandomAccessFile file= new RandomAccessFile(fileName,"rw")) {
+			file.setLength(0);
+			file.writeInt(MAGIC);
+			file.writeInt(rows);
+			file.writeInt(cols);
+			file.setLength(HEADER+size);
+			MappedByteBuffer table= file.getChannel().map(FileChannel.MapMode.READ_WRITE,HEADER,size);
+			for (int i=0; i<size; i++)
+				table.put(i,(byte) UNREACHED);
+
+			for (int p=0; p<n; p++)
+				perm[p]= p;
+			table.put(rank(perm,work),(byte) 0);
+
+			for (int depth=0, layer=1; layer > 0; depth++) {
+				layer= 0;
+				for (int i=0; i<size; i++) {
+					int entry= table.get(i) & 0xFF;
+					if (entry==UNREACHED || entry>>>2!=depth)
+						continue;
+					unrank(i,perm);
+					int bpos= 0;
+					while (perm[bpos]!=n-1)
+						bpos++;
+					for (int move=0; move<Puzzle.MOVES.length(); move++) {
+						int target= puzzle.target(bpos,move);
+						if (target < 0)
+							continue;
+						perm[bpos]= perm[target];
+						perm[target]= n-1;
+						int j= rank(perm,work);
+						if ((table.get(j) & 0xFF)==UNREACHED) {
+							if (depth+1 > MAX_DEPTH)
+								throw new IllegalStateException(rows+"x"+cols+" boards can be more than "+MAX_DEPTH+" moves from the goal");
+							// from j the blank goes back the way it came
+							table.put(j,(byte) ((depth+1)<<2 | move^1));
+							layer++;
+						}
+						perm[target]= perm[bpos];
+						perm[bpos]= n-1;
+					}
+				}
+			}
+			table.force();
+		}
+		catch (IllegalStateException e) {
+			new File(fileName).delete(); // open would take it for a finished table
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Fewest moves from a state to the goal.
+	 *
+	 * @param state packed state
+	 * @return moves, or -1 if the goal cannot be reached
+	 */
+	public int distance(long state)
+	{
+		int entry= entry(state);
+		return entry==UNREACHED ? -1 : entry>>>2;
+	}
+
+
+	/**
+	 * Follow the table from a state to the goal.
+	 *
+	 * @param state packed state
+	 * @param first direction to put before the moves (X for a new board)
+	 * @return one direction per board, starting with first, or null if the
+	 * goal cannot be reached
+	 */
+	public String solve(long state, char first)
+	{
+		int entry= entry(state);
+		if (entry==UNREACHED)
+			return null;
+
+		StringBuilder sb= new StringBuilder().append(first);
+		int bpos= puzzle.blankPosition(state);
+		while (entry>>>2 > 0) {
+			int target= puzzle.target(bpos,entry & 3);
+			sb.append(Puzzle.MOVES.charAt(entry & 3));
+			state= puzzle.slide(state,bpos,target);
+			bpos= target;
+			entry= entry(state);
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Exact distance, so A* goes straight to the goal; unreachable states
+	 * get 0.
+	 */
+	@Override
+	public int estimate(long state)
+	{
+		return Math.max(0,distance(state));
+	}
+
+
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		return estimate(state);
+	}
+
+
+	private int entry(long state)
+	{
+		return table.get(rank(state,puzzle.size())) & 0xFF;
+	}
+
+
+	/**
+	 * Myrvold-Ruskey rank of a permutation, in linear time.
+	 *
+	 * @param perm tile in each cell; left as it was
+	 * @param work scratch space of twice perm's length
+	 * @return rank from 0 to n!-1
+	 */
+	public static int rank(int [] perm, int [] work)
+	{
+		int n= perm.length;
+		int rank= 0, radix= 1;
+		for (int p=0; p<n; p++) {
+			work[p]= perm[p];
+			work[n+perm[p]]= p;
+		}
+		for (int k=n; k > 1; k--) {
+			int s= work[k-1];
+			int at= work[n+k-1];
+			work[at]= s;
+			work[k-1]= k-1;
+			work[n+s]= at;
+			work[n+k-1]= k-1;
+			rank+= s*radix;
+			radix*= k;
+		}
+		return rank;
+	}
+
+
+	/**
+	 * Myrvold-Ruskey rank of a packed state, as rank gives for its tiles.
+	 *
+	 * <p>The permutation and its inverse are worked on as 4-bit fields of
+	 * two longs, so a lookup allocates nothing and the table can be shared
+	 * between threads.</p>
+	 *
+	 * @param state packed state, tile in cell p in bits 4p..4p+3
+	 * @param n number of cells
+	 * @return rank from 0 to n!-1
+	 */
+	public static int rank(long state, int n)
+	{
+		long perm= state, where= 0; // tile in each cell; cell of each tile
+		for (int p=0; p<n; p++)
+			where|= (long) p << ((perm >>> (p<<2) & 0xF) << 2);
+		int rank= 0, radix= 1;
+		for (int k=n; k > 1; k--) {
+			int s= (int) (perm >>> ((k-1)<<2)) & 0xF;
+			int at= (int) (where >>> ((k-1)<<2)) & 0xF;
+			perm= perm & ~(0xFL << (at<<2)) | (long) s << (at<<2);
+			where= where & ~(0xFL << (s<<2)) | (long) at << (s<<2);
+			rank+= s*radix;
+			radix*= k;
+		}
+		return rank;
+	}
+
+
+	/**
+	 * Inverse of rank.
+	 *
+	 * @param rank from 0 to n!-1
+	 * @param perm filled with the tile in each cell
+	 */
+	public static void unrank(int rank, int [] perm)
+	{
+		for (int p=0; p<perm.length; p++)
+			perm[p]= p;
+		for (int k=perm.length; k > 1; k--) {
+			int p= rank % k, t= perm[k-1];
+			perm[k-1]= perm[p];
+			perm[p]= t;
+			rank/= k;
+		}
+	}
+
+
+	/**
+	 * Refuse a board whose distances might not fit in an entry.
+	 */
+	private static void checkShape(int rows, int cols)
+	{
+		if (rows*cols > MAX_CELLS)
+			throw new IllegalArgumentException("perfect tables hold at most "+MAX_CELLS+" cells");
+		if (Math.min(rows,cols) > 3 || Math.max(rows,cols) > 4)
+			throw new IllegalArgumentException("perfect tables only cover boards that fit in 3x4 or 4x3");
+	}
+
+
+	private static long factorial(int n)
+	{
+		long f= 1;
+		for (int i=2; i<=n; i++)
+			f*= i;
+		return f;
+	}
+
+
+	public int getRows() { return puzzle.getRows(); }
+	public int getCols() { return puzzle.getCols(); }
+
+
+	public static void main(String [] args) throws IOException
+	{
+		if (args.length < 3) {
+			System.out.println("usage: java PerfectTable rows cols file");
+			return;
+		}
+		Timer timer= new Timer();
+		timer.start();
+		build(Integer.parseInt(args[0]),Integer.parseInt(args[1]),args[2]);
+		System.out.println(args[2]+" built in "+timer+" seconds");
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Exact distances for every state within a few moves of the goal.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>A breadth-first search from the goal to a chosen depth d records each
+ * state it reaches and its distance in a LongIntMap. As a heuristic this
+ * wraps another one: states on the perimeter get their exact distance, and
+ * every other state is at least d+1 moves out, so it gets the larger of
+ * the wrapped estimate and d+1. That stays consistent, so A* can stop as
+ * soon as it expands a perimeter state (h at most d): its f is then a true
+ * solution length and no open board has a lower one.</p>
+ *
+ * <p>The perimeter holds roughly 2^d states for the 15-puzzle, about 16
+ * bytes each, so the depth trades memory for shorter searches.</p>
+ */
+import java.util.Arrays;
+
+public class PerimeterDatabase implements Heuristic
+{
+	private Puzzle puzzle;     // layout and goal
+	private Heuristic base;    // estimate used off the perimeter
+	private int depth;         // every state this close to the goal is stored
+	private LongIntMap inside; // state -> exact moves to the goal
+
+	/**
+	 * Search out the perimeter around a puzzle's goal.
+	 *
+	 * @param puzzle goal to search from; its heuristic is the one wrapped
+	 * @param depth moves from the goal to cover
+	 */
+	public PerimeterDatabase(Puzzle puzzle, int depth)
+	{
+		this.puzzle= puzzle;
+		this.base= puzzle.getHeuristic();
+		this.depth= depth;
+		this.inside= new LongIntMap(1<<10,0.75f);
+
+		long [] layer= { puzzle.getGoal() };
+		inside.put(puzzle.getGoal(),0);
+		for (int d=1; d<=depth && layer.length > 0; d++) {
+			long [] next= new long[4*layer.length];
+			int count= 0;
+			for (long state : layer) {
+				int bpos= puzzle.blankPosition(state);
+				for (int move=0; move<Puzzle.MOVES.length(); move++) {
+					int target= puzzle.target(bpos,move);
+					if (target < 0)
+						continue;
+					long s= puzzle.slide(state,bpos,target);
+					if (inside.get(s,-1) < 0) {
+						inside.put(s,d);
+						next[count++]= s;
+					}
+				}
+			}
+			layer= Arrays.copyOf(next,count);
+		}
+	}
+
+
+	/**
+	 * Exact moves from a state to the goal, if it is on the perimeter.
+	 *
+	 * @param state packed state
+	 * @return moves, or -1 if the state is more than depth moves out
+	 */
+	public int distance(long state)
+	{
+		return inside.get(state,-1);
+	}
+
+
+	/**
+	 * Moves from a perimeter state to the goal.
+	 *
+	 * @param state packed state within depth moves of the goal
+	 * @return directions, one per move, or null if the state is not inside
+	 */
+	public String path(long state)
+	{
+		int d= distance(state);
+		if (d < 0)
+			return null;
+
+		StringBuilder sb= new StringBuilder();
+		int bpos= puzzle.blankPosition(state);
+		while (d > 0) {
+			for (int move=0; move<Puzzle.MOVES.length(); move++) {
+				int target= puzzle.target(bpos,move);
+				if (target < 0)
+					continue;
+				long next= puzzle.slide(state,bpos,target);
+				if (distance(next)==d-1) {
+					sb.append(Puzzle.MOVES.charAt(move));
+					state= next;
+					bpos= target;
+					d--;
+					break;
+				}
+			}
+		}
+		return sb.toString();
+	}
+
+
+	@Override
+	public int estimate(long state)
+	{
+		return clamp(state,base.estimate(state));
+	}
+
+
+	/**
+	 * Estimate after one tile slid.
+	 *
+	 * <p>An h above d+1 is the wrapped estimate itself, so it can be updated
+	 * incrementally; otherwise the wrapped estimate is worked out again.</p>
+	 */
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		int b= h > depth+1 ? base.update(state,h,tile,from,to) : base.estimate(state);
+		return clamp(state,b);
+	}
+
+
+	/**
+	 * Combine a wrapped estimate with what the perimeter knows.
+	 *
+	 * <p>The wrapped estimate never overestimates, so only a state it puts
+	 * within depth moves can be on the perimeter.</p>
+	 */
+	private int clamp(long state, int b)
+	{
+		if (b <= depth) {
+			int d= distance(state);
+			if (d >= 0)
+				return d;
+		}
+		return Math.max(b,depth+1);
+	}
+
+
+	public int getDepth() { return depth; }
+	public Heuristic getBase() { return base; }
+	public int size() { return inside.size(); }
+}
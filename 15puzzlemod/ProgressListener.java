@@ -0,0 +1,21 @@
+/**
+ * Hears how a search is getting on while it runs.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Called on the solving thread every few tens of thousands of
+ * expansions, so implementations should return quickly.</p>
+ */
+public interface ProgressListener
+{
+	/**
+	 * Report on the board being solved.
+	 *
+	 * @param states boards generated so far on this board
+	 * @param bound f being expanded: the open list's lowest f for A*, the
+	 * pass's bound for IDA*
+	 * @param open boards waiting on the open list (0 for IDA*)
+	 */
+	void progress(long states, int bound, int open);
+}
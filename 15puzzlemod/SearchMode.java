@@ -0,0 +1,29 @@
+/**
+ * Search strategies a Solver can be built with.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>ASTAR keeps every generated board, so it needs memory in proportion to
+ * the states it touches. IDASTAR repeats depth-first passes over a single
+ * board with a growing bound on f, so it only needs memory in proportion to
+ * the solution length, and PIDASTAR spreads each of those passes over
+ * several threads (see ParallelIdaStar). HDASTAR is A* spread over several
+ * threads, each owning the states that hash to it (see HdaStar). MM
+ * searches from both ends at once and stops when the two halves provably
+ * meet (see MmSearch). FRONTIER is A* that keeps no closed set, so it
+ * needs memory in proportion to the open list alone (see FrontierSearch).
+ * WASTAR and ARASTAR give up optimality for speed: their solutions are
+ * within a known factor of the shortest (see AraStar).</p>
+ */
+public enum SearchMode
+{
+	ASTAR,   // best-first search with open/closed sets
+	IDASTAR, // iterative deepening A*
+	PIDASTAR,// iterative deepening A*, each pass on a ForkJoinPool
+	HDASTAR, // hash-distributed parallel A*
+	MM,      // bidirectional meet-in-the-middle
+	FRONTIER,// A* holding only the open list
+	WASTAR,  // weighted A*, f = g + w*h
+	ARASTAR  // anytime repairing A*, w lowered towards 1 until time runs out
+}
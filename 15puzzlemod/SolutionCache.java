@@ -0,0 +1,225 @@
+/**
+ * Remembers optimal solutions by packed start state.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Two tiers. The memory tier is a LinkedHashMap in access order that
+ * drops its least recently used entry once it holds more than its
+ * capacity. The optional file tier is an append-only log that is never
+ * trimmed: its index (state to record offset, in a LongIntMap) is rebuilt
+ * by scanning the file when it is opened, and a record found there is
+ * copied back into the memory tier.</p>
+ *
+ * <p>File layout (big-endian): magic, rows, cols, then records of the start
+ * state (long), the solution's length (unsigned short) and its directions
+ * as ASCII. A record cut short by a crash is dropped when the file is
+ * next opened.</p>
+ *
+ * <p>Only solutions proven optimal belong here. Methods are synchronized so
+ * forks of one Solver can share a cache.</p>
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SolutionCache
+{
+	public static final int MAGIC= 0x534F4C31; // "SOL1"
+	private static final int HEADER= 12;       // bytes before the first record
+
+	private int rows,cols;            // size of the boards cached
+	private LinkedHashMap<Long,String> memory; // most recently used solutions
+	private RandomAccessFile file;    // append-only log, or null
+	private LongIntMap offsets;       // state -> record offset in file
+	private long hits;                // lookups answered from either tier
+	private long misses;              // lookups answered from neither
+	private long evictions;           // entries dropped from the memory tier
+
+	/**
+	 * Create a cache held in memory only.
+	 *
+	 * @param rows number of rows on the boards cached
+	 * @param cols number of columns on the boards cached
+	 * @param capacity most solutions to keep in memory
+	 */
+	@SuppressWarnings("serial")
+	public SolutionCache(int rows, int cols, int capacity)
+	{
+		this.rows= rows;
+		this.cols= cols;
+		this.memory= new LinkedHashMap<Long,String>(16,0.75f,true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long,String> eldest)
+			{
+				if (size() <= capacity)
+					return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+
+	/**
+	 * Create a cache backed by a file, which is created if need be.
+	 *
+	 * @param fileName log of solutions from earlier runs
+	 * @param rows number of rows on the boards cached
+	 * @param cols number of columns on the boards cached
+	 * @param capacity most solutions to keep in memory
+	 * @return cache that appends every new solution to the file
+	 */
+	public static SolutionCache open(String fileName, int rows, int cols, int capacity) throws IOException
+	{
+		SolutionCache cache= new SolutionCache(rows,cols,capacity);
+		RandomAccessFile file= new RandomAccessFile(fileName,"rw");
+		try {
+			cache.load(file,fileName);
+		}
+		catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		cache.file= file;
+		return cache;
+	}
+
+
+	/**
+	 * Look up the solution for a start state.
+	 *
+	 * @param state packed start state
+	 * @return directions starting with X, or null if not cached
+	 */
+	public synchronized String get(long state)
+	{
+		String solution= memory.get(state);
+		if (solution==null && file!=null) {
+			int offset= offsets.get(state,-1);
+			if (offset >= 0) {
+				solution= read(offset);
+				memory.put(state,solution);
+			}
+		}
+		if (solution==null)
+			misses++;
+		else
+			hits++;
+		return solution;
+	}
+
+
+	/**
+	 * Remember an optimal solution.
+	 *
+	 * @param state packed start state
+	 * @param solution directions starting with X
+	 */
+	public synchronized void put(long state, String solution)
+	{
+		memory.put(state,solution);
+		if (file==null || offsets.get(state,-1) >= 0)
+			return;
+
+		try {
+			ByteArrayOutputStream bytes= new ByteArrayOutputStream(10+solution.length());
+			DataOutputStream out= new DataOutputStream(bytes);
+			out.writeLong(state);
+			out.writeShort(solution.length());
+			out.write(solution.getBytes(StandardCharsets.US_ASCII));
+
+			long offset= file.length();
+			if (offset > Integer.MAX_VALUE)
+				return; // offsets are ints; the memory tier still has it
+			file.seek(offset);
+			file.write(bytes.toByteArray());
+			offsets.put(state,(int) offset);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	/**
+	 * Flush and close the file tier, if any; the memory tier still works.
+	 */
+	public synchronized void close() throws IOException
+	{
+		if (file!=null) {
+			file.close();
+			file= null;
+		}
+	}
+
+
+	public synchronized long getHits() { return hits; }
+	public synchronized long getMisses() { return misses; }
+	public synchronized long getEvictions() { return evictions; }
+
+
+	@Override
+	public synchronized String toString()
+	{
+		return "cache hits: "+hits+"; misses: "+misses+"; evictions: "+evictions;
+	}
+
+
+	/**
+	 * Check a file's header, or write one if it is empty, then index its
+	 * records.
+	 */
+	private void load(RandomAccessFile file, String fileName) throws IOException
+	{
+		offsets= new LongIntMap(1<<10,0.75f);
+		if (file.length()==0) {
+			file.writeInt(MAGIC);
+			file.writeInt(rows);
+			file.writeInt(cols);
+			return;
+		}
+		if (file.length() < HEADER || file.readInt()!=MAGIC)
+			throw new IOException(fileName+" is not a solution cache");
+		if (file.readInt()!=rows || file.readInt()!=cols)
+			throw new IOException(fileName+" holds solutions for another board size");
+
+		long offset= HEADER, end= file.length();
+		try {
+			while (offset < end) {
+				file.seek(offset);
+				long state= file.readLong();
+				int length= file.readUnsignedShort();
+				if (offset+10+length > end)
+					break;
+				if (offset <= Integer.MAX_VALUE)
+					offsets.put(state,(int) offset);
+				offset+= 10+length;
+			}
+		}
+		catch (EOFException e) {
+			// a record was being written when we last stopped
+		}
+		file.setLength(offset);
+	}
+
+
+	private String read(int offset)
+	{
+		try {
+			file.seek(offset+8);
+			byte [] directions= new byte[file.readUnsignedShort()];
+			file.readFully(directions);
+			return new String(directions,StandardCharsets.US_ASCII);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Outcome of solving one board.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Counts are for this board alone, unlike Solver's running totals.</p>
+ */
+public class SolveResult
+{
+	private SolveStatus status; // how the search ended
+	private String solution;    // directions starting with X, or null
+	private double bound;       // solution is within this factor of optimal
+	private long states;        // boards generated
+	private long duplicateStates; // generated boards already seen
+	private long millis;        // wall-clock time taken
+
+	/**
+	 * Record an outcome.
+	 *
+	 * @param status how the search ended
+	 * @param solution directions to the goal starting with X, or null
+	 * @param bound factor of at least 1 the solution may be off by
+	 * @param states boards generated
+	 * @param duplicateStates generated boards already seen
+	 * @param millis wall-clock time taken
+	 */
+	public SolveResult(SolveStatus status, String solution, double bound,
+		long states, long duplicateStates, long millis)
+	{
+		this.status= status;
+		this.solution= solution;
+		this.bound= bound;
+		this.states= states;
+		this.duplicateStates= duplicateStates;
+		this.millis= millis;
+	}
+
+
+	/**
+	 * Number of moves in the solution.
+	 *
+	 * @return moves, or -1 if there is no solution
+	 */
+	public int getMoves()
+	{
+		return solution==null ? -1 : solution.length()-1;
+	}
+
+
+	public SolveStatus getStatus() { return status; }
+	public boolean isSolved() { return status==SolveStatus.SOLVED; }
+	public String getSolution() { return solution; }
+	public double getBound() { return bound; }
+	public long getStates() { return states; }
+	public long getDuplicateStates() { return duplicateStates; }
+	public long getMillis() { return millis; }
+
+
+	@Override
+	public String toString()
+	{
+		if (!isSolved())
+			return status+" after "+millis+"ms ("+states+" states)";
+		return String.format("%s in %d moves after %dms (%d states; within %1.3fx optimal)",
+			status,getMoves(),millis,states,bound);
+	}
+}
@@ -0,0 +1,17 @@
+/**
+ * How a call to Solver.solve ended.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>WASTAR and ARASTAR keep the best solution found before they were
+ * stopped, so they report SOLVED (with a bound above 1) rather than
+ * TIMED_OUT or CANCELLED whenever they have one.</p>
+ */
+public enum SolveStatus
+{
+	SOLVED,      // a solution was found
+	NO_SOLUTION, // the search ran out of boards: the start cannot be solved
+	TIMED_OUT,   // the budget ran out first
+	CANCELLED    // Solver.cancel, Future.cancel or an interrupt stopped it
+}
@@ -4,25 +4,86 @@
  * @author	Alexis Chuah
  * @version 15 Feb 2016
  *
- * <p>Implement hash table to store board states that have been processed.</p>
+ * <p>Implement hash table to store board states that have been processed.
+ * A* keeps its nodes in a NodeArena rather than as boards, and the table
+ * holds just their indices, as the states are in the arena (see
+ * NodeIndex).</p>
+ * <p>Can also solve with IDA* (see SearchMode) when A* would run out of
+ * memory, with HDA* or parallel IDA* on several threads when one board is
+ * too slow, or from both ends at once with MM. FRONTIER is A* without a
+ * closed set, for boards whose explored states would not fit. WASTAR and
+ * ARASTAR trade optimality for speed and can be given a time limit.</p>
+ * <p>solve(Duration) stops any search once its budget is spent or it is
+ * cancelled, and says which happened in a SolveResult; submit runs one on
+ * a thread pool behind a Future.</p>
+ * <p>With a SolutionCache, boards solved optimally before are answered
+ * without searching. So is every board of up to 12 cells, given a
+ * PerfectTable.</p>
+ * <p>A PerimeterDatabase sharpens the heuristic near the goal and lets A*
+ * stop once it reaches any state within the perimeter.</p>
+ * <p>A* can also hold back expensive heuristics until a board is about to
+ * be expanded (see setLazyHeuristics), or keep its closed set in a
+ * fixed-size BitStateSet when even packed states would not fit.</p>
+ * <p>A* and IDA* can save their progress to a Checkpoint now and then, and
+ * a solver can resume from one and finish as if it had never stopped (see
+ * setCheckpoint and resume).</p>
 */
 import java.util.Scanner;
-import java.util.PriorityQueue;
 import java.util.Stack;
-import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 
 public class Solver
 {
+	private static final int POLL= 1023;    // expansions between checks for a stop, less one
+	private static final int REPORT= 1<<16; // expansions between progress reports
+	private static final int NOT_REACHED= -1; // never a node index
+	private static final int CLOSED= -2;      // some closed node, when only a bit-state set knows
+
 	private int rows;        // number of rows for boards we are solving
 	private int cols;        // number of cols for boards we are solving
+	private Puzzle puzzle;   // dimensions/goal shared by every board
 	private Board board;     // current starting board
 	private Board solved;    // solved board
+	private String solution; // directions from board to solved, starting with X
+	private SearchMode mode; // which search solve() runs
+	private TieBreak tie;    // which of equal-f boards A* expands first
+	private float loadFactor;// how full A*'s table of reached states gets before growing
+	private int threads;     // HDA*/parallel IDA* workers, 0 for one per processor
+	private double weight;   // w for WASTAR, or the first w for ARASTAR
+	private long timeLimit;  // millis WASTAR/ARASTAR may run, 0 for no limit
+	private double bound;    // last solution is within this factor of optimal
 	private Scanner source;  // source from which we read next board
 	private Timer timer;     // track wall-clock time of solution
-	private int states;       // total number of states encountered
-	private int duplicateStates; //number of duplicate states encountered
+	private long states;      // total number of states encountered
+	private long duplicateStates; //number of duplicate states encountered
 	private boolean found;
+	private ProgressListener listener; // told how each search is going, or null
+	private volatile boolean cancelled; // set by cancel() from any thread
+	private long deadline;   // System.currentTimeMillis() to give up at, 0 for never
+	private SolveStatus stopReason; // why the search was cut short, null if it wasn't
+	private long expansions; // boards expanded on this board, for polling
+	private long statesBefore; // states when this board's search began
+	private long duplicatesBefore; // duplicateStates then
+	private SolveResult result; // outcome of the last solve
+	private SolutionCache cache; // optimal solutions by start state, or null
+	private PerfectTable table;  // every state's best move, or null
+	private PerimeterDatabase perimeter; // exact distances near the goal, or null
+	private Heuristic [] lazy= new Heuristic[0]; // looked at when A* is about to expand a board
+	private int bitStateMegabytes; // size of A*'s bit-state closed set, 0 for an exact one
+	private int bitStateHashes;    // bits it sets per state
+	private BitStateSet bitState;  // made on first use and cleared for each board
+	private String checkpointFile; // where A* and IDA* save their progress, or null
+	private long checkpointMillis; // time between A*'s checkpoints
+	private long nextCheckpoint;   // System.currentTimeMillis() of A*'s next one
+	private Checkpoint resumed;    // saved search to carry on with the current board, or null
 
 	/**
 	 * Initialize the solver by specifying puzzle sizes and input source.
@@ -32,10 +93,29 @@ public class Solver
 	 * @param dataFile input source for board
 	 */
 	public Solver(int rows, int cols, InputStream dataFile)
+	{
+		this(rows,cols,dataFile,SearchMode.ASTAR);
+	}
+
+
+	/**
+	 * Initialize the solver with a choice of search.
+	 *
+	 * @param rows number of rows for each puzzle
+	 * @param cols columns for each puzzle
+	 * @param dataFile input source for board
+	 * @param mode search used by solve()
+	 */
+	public Solver(int rows, int cols, InputStream dataFile, SearchMode mode)
 	{
 		try {
+			this.mode= mode;
+			this.tie= TieBreak.HIGH_G;
+			this.loadFactor= 0.5f;
+			this.weight= 2.0;
 			this.rows= rows;
 			this.cols= cols;
+			puzzle= new Puzzle(rows,cols);
 			timer= new Timer();
 			source= new Scanner(dataFile);
 		}
@@ -45,6 +125,272 @@ public class Solver
 	}
 
 
+	/**
+	 * Copy another solver's settings and current board, but nothing else.
+	 *
+	 * @param other solver to copy
+	 */
+	private Solver(Solver other)
+	{
+		this.rows= other.rows;
+		this.cols= other.cols;
+		this.puzzle= other.puzzle;
+		this.mode= other.mode;
+		this.tie= other.tie;
+		this.loadFactor= other.loadFactor;
+		this.threads= other.threads;
+		this.weight= other.weight;
+		this.timeLimit= other.timeLimit;
+		this.listener= other.listener;
+		this.cache= other.cache;
+		this.table= other.table;
+		this.perimeter= other.perimeter;
+		this.lazy= other.lazy;
+		this.bitStateMegabytes= other.bitStateMegabytes;
+		this.bitStateHashes= other.bitStateHashes;
+		this.board= other.board;
+		this.timer= new Timer();
+	}
+
+
+	/**
+	 * A solver for just the current board, with our settings.
+	 *
+	 * @return independent solver that shares no search state with us
+	 *
+	 * <p>Lets several boards be solved at once on different threads: the
+	 * puzzle and heuristic tables are shared read-only, everything else is
+	 * the copy's own.</p>
+	 */
+	public Solver fork()
+	{
+		return new Solver(this);
+	}
+
+
+	/**
+	 * Estimate boards read from now on with a given heuristic.
+	 *
+	 * @param heuristic estimate built for our board size, or null for manhattan
+	 *
+	 * <p>Drops any perimeter, which wraps the heuristic it was set up with.</p>
+	 */
+	public void setHeuristic(Heuristic heuristic)
+	{
+		puzzle= new Puzzle(rows,cols,heuristic);
+		perimeter= null;
+	}
+
+
+	/**
+	 * Search out every state within some moves of the goal, and use them
+	 * around the current heuristic for boards read from now on.
+	 *
+	 * @param depth moves from the goal to store, or 0 for no perimeter
+	 */
+	public void setPerimeter(int depth)
+	{
+		Heuristic heuristic= perimeter==null ? puzzle.getHeuristic() : perimeter.getBase();
+		puzzle= new Puzzle(rows,cols,heuristic);
+		perimeter= null;
+		if (depth > 0) {
+			perimeter= new PerimeterDatabase(puzzle,depth);
+			puzzle= new Puzzle(rows,cols,perimeter);
+		}
+	}
+
+
+	/**
+	 * Give A* stronger but dearer heuristics to apply only when needed.
+	 *
+	 * @param lazy up to NodeArena.MAX_LEVEL heuristics built for our board
+	 * size, cheapest first; none to estimate with our heuristic alone
+	 *
+	 * <p>Children are queued with the usual heuristic. When one reaches the
+	 * top of the open list the lazy heuristics are tried in turn, and the
+	 * first that raises its f sends it back to be queued again; it is only
+	 * expanded once none do. Boards left open when the goal is found never
+	 * pay for them. Other searches ignore these heuristics.</p>
+	 */
+	public void setLazyHeuristics(Heuristic... lazy)
+	{
+		if (lazy.length > NodeArena.MAX_LEVEL)
+			throw new IllegalArgumentException("at most "+NodeArena.MAX_LEVEL+" lazy heuristics");
+		this.lazy= lazy.clone();
+	}
+
+
+	/**
+	 * Give A* a closed set of fixed size that may wrongly claim a state was
+	 * expanded, instead of one that grows with the search.
+	 *
+	 * @param megabytes size of its bit array, or 0 for an exact closed set
+	 * @param hashes bits it sets for each state; 3 or so suits most sizes
+	 *
+	 * <p>A board whose state seems to have been expanded is dropped, so a
+	 * false positive can cut off the best path or every path, and the
+	 * solution found may not be optimal (nor cached). Open states are not
+	 * tracked, and a board queued twice is simply skipped the second time.
+	 * toString reports the chance of a false positive by the end. Only A*
+	 * uses it.</p>
+	 *
+	 * <p>The setting is copied by fork, and every copy allocates a set of
+	 * its own, so a BatchSolver would keep one for every board it solves
+	 * until the batch ends.</p>
+	 */
+	public void setBitState(int megabytes, int hashes)
+	{
+		if (megabytes < 0 || megabytes > BitStateSet.MAX_MEGABYTES)
+			throw new IllegalArgumentException("bit-state set must be 0 to "+BitStateSet.MAX_MEGABYTES+" MB");
+		this.bitStateMegabytes= megabytes;
+		this.bitStateHashes= hashes;
+		this.bitState= null;
+	}
+
+
+	/**
+	 * Save the progress of A* and IDA* to a file, so a search cut short by
+	 * a restart can be resumed.
+	 *
+	 * @param fileName checkpoint file, or null for none
+	 * @param everyMillis how often A* saves; IDA* saves as each pass starts
+	 *
+	 * <p>The file is rewritten each time, and deleted once the board is
+	 * solved or proven unsolvable. A* with a bit-state set is not saved,
+	 * other searches ignore the checkpoint, and forks do not inherit it.</p>
+	 */
+	public void setCheckpoint(String fileName, long everyMillis)
+	{
+		this.checkpointFile= fileName;
+		this.checkpointMillis= everyMillis;
+	}
+
+
+	/**
+	 * Make the board a checkpoint was saved from the current board, and
+	 * have the next solve carry on from where the checkpoint left off.
+	 *
+	 * @param fileName file saved by a solver with our board size, search
+	 * and heuristic
+	 *
+	 * <p>The search ends with the same solution and counts as it would have
+	 * without stopping, though the time taken only covers the resumed
+	 * part.</p>
+	 */
+	public void resume(String fileName) throws IOException
+	{
+		Checkpoint saved= Checkpoint.load(fileName);
+		if (saved.getRows()!=rows || saved.getCols()!=cols)
+			throw new IOException(fileName+" is for "+saved.getRows()+"x"+saved.getCols()+" boards");
+		if (saved.getMode()!=mode)
+			throw new IOException(fileName+" is a checkpoint of "+saved.getMode()+", not "+mode);
+		if (mode==SearchMode.ASTAR && bitStateMegabytes > 0)
+			throw new IOException("A* cannot resume with a bit-state set");
+		long state= saved.getLo();
+		if (!saved.matches(rows,cols,mode,state,0,puzzle.estimate(state)))
+			throw new IOException(fileName+" was saved with a different heuristic");
+
+		char [] tiles= new char[rows*cols];
+		for (int i=0; i<tiles.length; i++)
+			tiles[i]= (char) puzzle.tile(state,i);
+		board= new Board(tiles,puzzle);
+		resumed= saved;
+	}
+
+
+	/**
+	 * Choose how A* orders boards with equal f.
+	 *
+	 * @param tie prefer deeper (HIGH_G) or shallower (LOW_G) boards
+	 */
+	public void setTieBreak(TieBreak tie)
+	{
+		this.tie= tie;
+	}
+
+
+	/**
+	 * Choose how full A*'s table of reached states may get before it doubles.
+	 *
+	 * @param loadFactor fraction between 0 and 1, 0.5 unless set; higher
+	 * saves memory, lower probes less
+	 */
+	public void setLoadFactor(float loadFactor)
+	{
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Choose how many threads HDA* and parallel IDA* search with.
+	 *
+	 * @param threads number of workers, or 0 for one per processor
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads= threads;
+	}
+
+
+	/**
+	 * Choose the weight on h for WASTAR, or the starting weight for ARASTAR.
+	 *
+	 * @param weight w of at least 1; solutions are at most w times optimal
+	 */
+	public void setWeight(double weight)
+	{
+		this.weight= weight;
+	}
+
+
+	/**
+	 * Limit how long WASTAR and ARASTAR may search each board.
+	 *
+	 * @param millis wall-clock budget, or 0 for no limit
+	 *
+	 * <p>When time runs out the best solution so far is kept, along with its
+	 * bound; if there is none, the board is left unsolved.</p>
+	 */
+	public void setTimeLimit(long millis)
+	{
+		this.timeLimit= millis;
+	}
+
+
+	/**
+	 * Hear how each search is getting on.
+	 *
+	 * @param listener called every so often while solving, or null
+	 */
+	public void setProgressListener(ProgressListener listener)
+	{
+		this.listener= listener;
+	}
+
+
+	/**
+	 * Look boards up in a cache before searching, and add optimal solutions
+	 * to it after.
+	 *
+	 * @param cache cache built for our board size, or null for none
+	 */
+	public void setCache(SolutionCache cache)
+	{
+		this.cache= cache;
+	}
+
+
+	/**
+	 * Solve boards by walking a perfect table instead of searching.
+	 *
+	 * @param table table built for our board size, or null to search
+	 */
+	public void setPerfectTable(PerfectTable table)
+	{
+		this.table= table;
+	}
+
+
 	/**
 	 * Creates a new board from the input source.
 	 *
@@ -58,7 +404,8 @@ public class Solver
 		if (source.hasNextInt()) {
 			for (int i= 0; i<n; i++)
 				tiles[i]= (char)source.nextInt();
-			board= new Board(tiles,rows,cols);
+			board= new Board(tiles,puzzle);
+			resumed= null;
 			return true;
 		}
 
@@ -71,13 +418,136 @@ public class Solver
 	 */
 	public void solve()
 	{
-		if (board==null)
+		solve(null);
+	}
+
+
+	/**
+	 * Solve the current board, giving up when the budget is spent.
+	 *
+	 * @param budget wall-clock time allowed, or null for no limit
+	 * @return how the search ended, or null if no board is loaded
+	 *
+	 * <p>Searches check the clock and for cancel() every thousand or so
+	 * expansions, so they stop within a few milliseconds of being asked.</p>
+	 */
+	public SolveResult solve(Duration budget)
+	{
+		if (board==null) {
 			System.out.println("No board loaded ... try calling nextBoard() ...");
-		else {
-			timer.start();
-			astar(board);
-			timer.stop();
+			return null;
+		}
+
+		duplicatesBefore= duplicateStates;
+		statesBefore= states;
+		solved= null;
+		solution= null;
+		bound= 1.0;
+		found= false;
+		cancelled= false;
+		stopReason= null;
+		expansions= 0;
+		deadline= budget==null ? 0 : System.currentTimeMillis()+budget.toMillis();
+		nextCheckpoint= System.currentTimeMillis()+checkpointMillis;
+		timer.start();
+		String cached= cache==null ? null : cache.get(board.getState());
+		if (cached!=null) {
+			found= true;
+			solution= cached;
+			solved= board.replay(cached);
 		}
+		else if (table!=null) {
+			solution= table.solve(board.getState(),board.getDir());
+			found= solution!=null;
+			if (found)
+				solved= board.replay(solution);
+		}
+		else if (mode==SearchMode.IDASTAR)
+			idastar(board);
+		else if (mode==SearchMode.PIDASTAR)
+			pidastar(board);
+		else if (mode==SearchMode.HDASTAR)
+			hdastar(board);
+		else if (mode==SearchMode.MM)
+			mm(board);
+		else if (mode==SearchMode.FRONTIER)
+			frontier(board);
+		else if (mode==SearchMode.WASTAR || mode==SearchMode.ARASTAR)
+			arastar(board);
+		else
+			astar(board);
+		timer.stop();
+		resumed= null;
+		if (checkpointFile!=null && stopReason==null)
+			try {
+				Files.deleteIfExists(Paths.get(checkpointFile));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		if (cache!=null && cached==null && table==null && found && bound==1.0 && !approximate())
+			cache.put(board.getState(),solution);
+
+		SolveStatus status= found ? SolveStatus.SOLVED
+			: stopReason!=null ? stopReason : SolveStatus.NO_SOLUTION;
+		result= new SolveResult(status,solution,bound,states-statesBefore,
+			duplicateStates-duplicatesBefore,timer.milliseconds());
+		return result;
+	}
+
+
+	/**
+	 * Solve the current board on a pool thread.
+	 *
+	 * @param pool executor to run the search on
+	 * @param budget wall-clock time allowed, or null for no limit
+	 * @return the outcome once it is ready; cancelling it stops the search
+	 *
+	 * <p>The search runs on a fork, so we are free to read the next board
+	 * straight away.</p>
+	 */
+	public Future<SolveResult> submit(ExecutorService pool, Duration budget)
+	{
+		Solver solver= fork();
+		FutureTask<SolveResult> task= new FutureTask<SolveResult>(() -> solver.solve(budget)) {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning)
+			{
+				solver.cancel();
+				return super.cancel(mayInterruptIfRunning);
+			}
+		};
+		pool.execute(task);
+		return task;
+	}
+
+
+	/**
+	 * Ask the running search to stop; safe to call from any thread.
+	 *
+	 * <p>It ends as CANCELLED unless it has a solution already.</p>
+	 */
+	public void cancel()
+	{
+		cancelled= true;
+	}
+
+
+	/**
+	 * Outcome of the last solve, or null before the first.
+	 */
+	public SolveResult getResult()
+	{
+		return result;
+	}
+
+
+	/**
+	 * Getter for the timer of the last solve.
+	 */
+	public Timer getTimer()
+	{
+		return timer;
 	}
 
 
@@ -94,7 +564,10 @@ public class Solver
 		}
 		display();
 		System.out.println();
-		return board.toString()+" -->\n"+solved.toString()+" ("+timer+"; duplicate states: " + duplicateStates + "; states: "+states+")";
+		String within= bound > 1 ? String.format("; within %1.3fx optimal",bound) : "";
+		String cached= cache==null ? "" : "; "+cache;
+		String bits= approximate() ? "; "+bitState : "";
+		return board.toString()+" -->\n"+solved.toString()+" ("+timer+"; duplicate states: " + duplicateStates + "; states: "+states+within+cached+bits+")";
 	}
 
 
@@ -105,7 +578,8 @@ public class Solver
 	{
 
 		System.out.print("Directions to solution: ");
-		showSolution(solved);
+		for (int i=0; i<solution.length(); i++)
+			System.out.print(solution.charAt(i) + " ");
 	
 	}
 
@@ -121,49 +595,436 @@ public class Solver
 	}
 
 
+	/**
+	 * Directions taken to reach a board, following its prev links.
+	 *
+	 * @param end last board on the path
+	 * @return one direction per board, starting with X for the first
+	 */
+	private String path(Board end)
+	{
+		StringBuilder sb= new StringBuilder();
+		for (Board b= end; b!=null; b= b.getPrev())
+			sb.append(b.getDir());
+		return sb.reverse().toString();
+	}
+
+
+	/**
+	 * Whether the last search was A* with a bit-state closed set, whose
+	 * solutions may not be optimal.
+	 */
+	private boolean approximate()
+	{
+		return bitState!=null && mode==SearchMode.ASTAR;
+	}
+
+
+	/**
+	 * Write a checkpoint of the current board's search, with its counts so
+	 * far, to our checkpoint file.
+	 */
+	private void save(Checkpoint c)
+	{
+		c.setCounts(states-statesBefore,duplicateStates-duplicatesBefore,expansions);
+		try {
+			c.save(checkpointFile);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		nextCheckpoint= System.currentTimeMillis()+checkpointMillis;
+	}
+
+
+	/**
+	 * Take up the counts a resumed search had reached.
+	 */
+	private void restoreCounts()
+	{
+		states+= resumed.getStates();
+		duplicateStates+= resumed.getDuplicates();
+		expansions= resumed.getExpansions();
+	}
+
+
+	/**
+	 * Check in from inside a search: report progress now and then, and say
+	 * whether to stop.
+	 *
+	 * @param f f being expanded
+	 * @param open boards on the open list
+	 * @return true if the search should give up
+	 */
+	private boolean poll(int f, int open)
+	{
+		if (listener!=null && (expansions & (REPORT-1))==0)
+			listener.progress(states-statesBefore,f,open);
+		return stopping();
+	}
+
+
+	/**
+	 * Whether the search should give up, noting why in stopReason.
+	 */
+	private boolean stopping()
+	{
+		if (stopReason==null) {
+			if (cancelled || Thread.currentThread().isInterrupted())
+				stopReason= SolveStatus.CANCELLED;
+			else if (deadline!=0 && System.currentTimeMillis() >= deadline)
+				stopReason= SolveStatus.TIMED_OUT;
+		}
+		return stopReason!=null;
+	}
+
+
 	/**
 	 * Performs A* search.
 	 *
 	 * @param start Starting board position
+	 *
+	 * <p>Nodes live in a NodeArena and the open list holds their indices,
+	 * so no Board is made until the goal is found and its path replayed.</p>
+	 *
+	 * <p>Each state has one node. A table maps the state to it, and a
+	 * child whose state has a node already counts as a duplicate state; it
+	 * is dropped unless it is cheaper, in which case it takes over the node
+	 * (decrease-key). If that changes its f the node is pushed again rather
+	 * than moved, and the copy left under the old f is skipped when it is
+	 * popped. Only an inconsistent heuristic can find a cheaper path to a
+	 * node already expanded; it is expanded again if its f changed.</p>
+	 *
+	 * <p>With a bit-state set (see setBitState) the table is not kept: a
+	 * child goes on the open list unless the set says its state was
+	 * expanded, and a board popped whose state the set already holds is
+	 * skipped.</p>
+	 *
+	 * <p>A child's h is at least its parent's less one (pathmax), which
+	 * carries what the lazy heuristics learned about the parent down to it
+	 * for free. A node whose h was raised that way or by a lazy heuristic
+	 * has its cheap estimate worked out again before its children's are
+	 * updated from it.</p>
+	 *
+	 * <p>Checkpoints are taken between expansions, so a resumed search
+	 * starts with the saved nodes and open list as they were.</p>
 	 */
 	private void astar(Board start)
 	{
-		PriorityQueue<Board> openSet = new PriorityQueue<Board>();
-		HashSet<Board> closeSet = new HashSet<Board>();	
-		Board curr;
-		Board next;
-		openSet.add(start);
-		int steps;
+		NodeArena nodes = resumed!=null ? resumed.getNodes() : new NodeArena(1<<16);
+		IntBucketQueue openSet = new IntBucketQueue(tie);
+		long state = start.getState();
+		int root = 0;
+		int curr;
+		if (resumed!=null){
+			restoreCounts();
+			for (int i : resumed.getOpen())
+				openSet.push(i, nodes.f(i), nodes.g(i));
+		}
+		else{
+			root = nodes.add(state, NodeArena.NO_PARENT, 0, start.getCost(), puzzle.blankPosition(state), 0);
+			openSet.push(root, nodes.f(root), 0);
+		}
+		NodeIndex reached = null; // state -> its node, open or closed
+		if (bitStateMegabytes==0)
+			reached = new NodeIndex(nodes, loadFactor);
+		else if (bitState==null)
+			bitState = new BitStateSet(bitStateMegabytes, bitStateHashes);
+		else
+			bitState.clear();
 		found = false;
-		String moves = "UDRL";
 
 		while(!openSet.isEmpty() && !found){
-			curr = openSet.remove();
-			steps = curr.getSteps();
-			closeSet.add(curr);
+			if (checkpointFile!=null && reached!=null && (expansions & POLL)==0 && System.currentTimeMillis() >= nextCheckpoint){
+				Checkpoint c = new Checkpoint(rows, cols, SearchMode.ASTAR, start.getState(), 0, puzzle.estimate(start.getState()));
+				c.setNodes(nodes, openSet.toArray(nodes::f));
+				save(c);
+			}
+			int top = openSet.minCost();
+			curr = openSet.pop();
+			if (nodes.f(curr)!=top)
+				continue; // left behind by a decrease-key
+			if ((++expansions & POLL)==0 && poll(nodes.f(curr), openSet.size()))
+				return;
+			state = nodes.state(curr);
+			if (nodes.level(curr) < lazy.length && evaluateLazy(nodes, curr)){
+				openSet.push(curr, nodes.f(curr), nodes.g(curr));
+				continue;
+			}
+			if (reached==null && !bitState.add(state)){
+				duplicateStates++; // expanded already, or a false positive
+				continue;
+			}
 
-			if(curr.isGoal()){
+			if(perimeter!=null ? nodes.h(curr)<=perimeter.getDepth() : state==puzzle.getGoal()){
 				found=true;
-				solved=curr;
+				solution=nodes.path(curr,start.getDir());
+				if (perimeter!=null)
+					solution+=perimeter.path(state);
+				solved=start.replay(solution);
 
 				return;
 			}
 
-			for (int i=0; i<moves.length(); i++){
-				char dir = moves.charAt(i);
+			int g = nodes.g(curr)+1;
+			int h = nodes.raised(curr) ? puzzle.estimate(state) : nodes.h(curr);
+			int pathmax = nodes.h(curr)-1;
+			int bpos = nodes.blank(curr);
+			for (int moves = puzzle.successors(bpos, curr==root ? -1 : nodes.move(curr)); moves!=0; moves &= moves-1){
+				int move = Integer.numberOfTrailingZeros(moves);
+				int target = puzzle.target(bpos, move);
 
-				if(curr.canMove(dir)){
-					next = curr.movePiece(dir, steps);
-					states++;
+				int tile = puzzle.tile(state, target);
+				long next = puzzle.slide(state, bpos, target);
+				states++;
 
-					if(closeSet.contains(next)){
-						duplicateStates++;
-					}
-					else{
-						openSet.add(next);		
+				int known = reached==null ? (bitState.contains(next) ? CLOSED : NOT_REACHED)
+					: reached.putIfAbsent(next, NOT_REACHED);
+				if(known==NOT_REACHED){
+					int child = nodes.add(next, curr, g, puzzle.update(next, h, tile, target, bpos), target, move);
+					nodes.lift(child, 0, pathmax);
+					openSet.push(child, nodes.f(child), g);
+				}
+				else{
+					duplicateStates++;
+					if(known >= 0 && g < nodes.g(known)){
+						// reached at a higher cost: take the cheaper path
+						int f = nodes.f(known);
+						nodes.relink(known, curr, g, move);
+						nodes.lift(known, nodes.level(known), pathmax);
+						if (nodes.f(known)!=f)
+							openSet.push(known, nodes.f(known), g);
 					}
 				}
 			}
 		}
 	}
+
+
+	/**
+	 * Try a node's lazy heuristics it has not yet been estimated with.
+	 *
+	 * @param nodes arena holding the node
+	 * @param i node at the top of the open list
+	 * @return true if one raised h, so the node must be queued again first
+	 */
+	private boolean evaluateLazy(NodeArena nodes, int i)
+	{
+		int h= nodes.h(i);
+		for (int level= nodes.level(i); level<lazy.length; level++) {
+			int estimate= lazy[level].estimate(nodes.state(i));
+			if (estimate > h) {
+				nodes.lift(i,level+1,estimate);
+				return true;
+			}
+		}
+		nodes.lift(i,lazy.length,h);
+		return false;
+	}
+
+
+	/**
+	 * Performs weighted A*, or ARA* if that is our mode, within our time limit.
+	 *
+	 * @param start Starting board position
+	 */
+	private void arastar(Board start)
+	{
+		AraStar search= new AraStar(puzzle,tie,loadFactor);
+		search.setStop(this::stopping);
+		long deadline= timeLimit > 0 ? System.currentTimeMillis()+timeLimit : 0;
+		Board goal= search.search(start,weight,mode==SearchMode.ARASTAR,deadline);
+		states+= search.getStates();
+		duplicateStates+= search.getDuplicates();
+		found= goal!=null;
+		if (found) {
+			solved= goal;
+			solution= path(goal);
+			bound= search.getBound();
+		}
+	}
+
+
+	/**
+	 * Performs hash-distributed A* search on several threads.
+	 *
+	 * @param start Starting board position
+	 */
+	private void hdastar(Board start)
+	{
+		HdaStar search= new HdaStar(threads,tie,loadFactor);
+		search.setStop(this::stopping);
+		Board goal;
+		found= false;
+
+		try {
+			goal= search.search(start);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopReason= SolveStatus.CANCELLED;
+			return;
+		}
+		finally {
+			states+= search.getStates();
+			duplicateStates+= search.getDuplicates();
+		}
+		if (goal!=null) {
+			found= true;
+			solved= goal;
+			solution= path(goal);
+		}
+	}
+
+
+	/**
+	 * Performs IDA* search with each pass split over several threads.
+	 *
+	 * @param start Starting board position
+	 */
+	private void pidastar(Board start)
+	{
+		ParallelIdaStar search= new ParallelIdaStar(puzzle,threads);
+		search.setStop(this::stopping);
+		Board goal;
+		found= false;
+
+		try {
+			goal= search.search(start);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopReason= SolveStatus.CANCELLED;
+			return;
+		}
+		finally {
+			states+= search.getStates();
+		}
+		if (goal!=null) {
+			found= true;
+			solved= goal;
+			solution= path(goal);
+		}
+	}
+
+
+	/**
+	 * Performs bidirectional MM search.
+	 *
+	 * @param start Starting board position
+	 */
+	private void mm(Board start)
+	{
+		MmSearch search= new MmSearch(puzzle,tie,loadFactor);
+		search.setStop(this::stopping);
+		Board goal= search.search(start);
+		states+= search.getStates();
+		duplicateStates+= search.getDuplicates();
+		found= goal!=null;
+		if (found) {
+			solved= goal;
+			solution= path(goal);
+		}
+	}
+
+
+	/**
+	 * Performs A* search keeping only the open list.
+	 *
+	 * @param start Starting board position
+	 */
+	private void frontier(Board start)
+	{
+		FrontierSearch search= new FrontierSearch(puzzle,tie,loadFactor);
+		search.setStop(this::stopping);
+		Board goal= search.search(start);
+		states+= search.getStates();
+		duplicateStates+= search.getDuplicates();
+		found= goal!=null;
+		if (found) {
+			solved= goal;
+			solution= path(goal);
+		}
+	}
+
+
+	/**
+	 * Performs IDA* search.
+	 *
+	 * @param start Starting board position
+	 *
+	 * <p>Each pass is a depth-first search that moves a single copy of the
+	 * start board back and forth, cutting off any path whose f exceeds the
+	 * bound. The next bound is the smallest f that was cut off, so the
+	 * first solution found is optimal.</p>
+	 *
+	 * <p>A checkpoint holds the bound of the pass about to start, which a
+	 * resumed search runs again from the top.</p>
+	 */
+	private void idastar(Board start)
+	{
+		Board curr= start.snapshot();
+		int bound= curr.getCost();
+		int passes= 0;
+		char [] path;
+		found= false;
+		if (resumed!=null) {
+			restoreCounts();
+			bound= resumed.getBound();
+			passes= resumed.getPasses();
+		}
+
+		while (!found && stopReason==null && bound!=Integer.MAX_VALUE) {
+			if (checkpointFile!=null) {
+				Checkpoint c= new Checkpoint(rows,cols,SearchMode.IDASTAR,start.getState(),0,puzzle.estimate(start.getState()));
+				c.setPass(bound,passes);
+				save(c);
+			}
+			passes++;
+			path= new char[bound+2];
+			path[0]= curr.getDir();
+			bound= dfs(curr,bound,path);
+			if (found)
+				solution= new String(path,0,solved.getSteps()+1);
+		}
+	}
+
+
+	/**
+	 * One bounded depth-first pass of IDA*.
+	 *
+	 * @param curr board we move around in place
+	 * @param bound largest f we may expand this pass
+	 * @param path directions taken so far, indexed by step
+	 * @return smallest f beyond bound (or the solution's f if found)
+	 */
+	private int dfs(Board curr, int bound, char [] path)
+	{
+		int f= curr.getCost();
+		if (f > bound)
+			return f;
+		if ((++expansions & POLL)==0 && poll(bound,0))
+			return f;
+		if (curr.isGoal()) {
+			found= true;
+			solved= curr.snapshot();
+			return f;
+		}
+
+		int min= Integer.MAX_VALUE;
+		char last= curr.getDir();
+		for (int moves= curr.legalMoves(); moves!=0; moves&= moves-1) {
+			char dir= Puzzle.MOVES.charAt(Integer.numberOfTrailingZeros(moves));
+			curr.makeMove(dir);
+			states++;
+			path[curr.getSteps()]= dir;
+			int t= dfs(curr,bound,path);
+			curr.unmakeMove(last);
+			if (found || stopReason!=null)
+				return t;
+			if (t < min)
+				min= t;
+		}
+		return min;
+	}
 }
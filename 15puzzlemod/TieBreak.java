@@ -0,0 +1,16 @@
+/**
+ * Which node a bucketed open list hands out first among those with equal f.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>With f fixed, a larger g is the same as a smaller h. Preferring it dives
+ * toward the goal on the last f-layer instead of widening the layer, which
+ * is usually far cheaper. Nodes with equal f and g come out last in, first
+ * out either way.</p>
+ */
+public enum TieBreak
+{
+	HIGH_G, // deepest first (smallest h)
+	LOW_G   // shallowest first (largest h)
+}
@@ -0,0 +1,173 @@
+/**
+ * Walking distance: vertical and horizontal moves counted separately.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>For the vertical part we forget which column each tile is in and only
+ * keep, for every row, how many of its tiles belong to each goal row, plus
+ * the row of the blank. A vertical move swaps the blank with any tile in
+ * the row above or below, so a breadth-first search from the goal over
+ * these tables gives the fewest vertical moves for each one. The
+ * horizontal part does the same with columns. Their sum never
+ * overestimates and is usually well above Manhattan distance, since it sees
+ * tiles getting in each other's way. Goal lines, the blank's among them,
+ * are read off the puzzle's goal, so it may be any arrangement.</p>
+ *
+ * <p>A table is coded with 3 bits per count and the blank's line on top,
+ * which holds up to 4 lines of up to 7 tiles. The reachable codes are kept
+ * sorted next to their distances and found by binary search.</p>
+ */
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class WalkingDistanceHeuristic implements Heuristic
+{
+	private Puzzle puzzle;     // dimensions and state layout
+	private int [] home;       // cell of each tile in the goal
+	private long [] rowCodes;  // reachable row tables, sorted
+	private byte [] rowMoves;  // vertical moves needed for each row table
+	private long [] colCodes;  // reachable column tables, sorted
+	private byte [] colMoves;  // horizontal moves needed for each column table
+
+	/**
+	 * Search out the walking distance tables for a puzzle.
+	 *
+	 * @param puzzle dimensions of the boards to estimate
+	 */
+	public WalkingDistanceHeuristic(Puzzle puzzle)
+	{
+		int rows= puzzle.getRows(), cols= puzzle.getCols();
+		if (rows > 4 || cols > 4)
+			throw new IllegalArgumentException("walking distance tables hold at most 4 rows and 4 columns");
+		this.puzzle= puzzle;
+		this.home= new int[puzzle.size()];
+		for (int p=0; p<puzzle.size(); p++)
+			home[puzzle.tile(puzzle.getGoal(),p)]= p;
+
+		int blank= home[puzzle.getBlank()];
+		HashMap<Long,Integer> moves= search(rows,cols,blank/cols);
+		rowCodes= sortedKeys(moves);
+		rowMoves= values(rowCodes,moves);
+		moves= search(cols,rows,blank%cols);
+		colCodes= sortedKeys(moves);
+		colMoves= values(colCodes,moves);
+	}
+
+
+	@Override
+	public int estimate(long state)
+	{
+		return lookup(rowCodes,rowMoves,code(state,true))
+			+ lookup(colCodes,colMoves,code(state,false));
+	}
+
+
+	@Override
+	public int update(long state, int h, int tile, int from, int to)
+	{
+		long before= puzzle.slide(state,from,to);
+		boolean vertical= from/puzzle.getCols()!=to/puzzle.getCols();
+
+		if (vertical)
+			return h - lookup(rowCodes,rowMoves,code(before,true)) + lookup(rowCodes,rowMoves,code(state,true));
+		return h - lookup(colCodes,colMoves,code(before,false)) + lookup(colCodes,colMoves,code(state,false));
+	}
+
+
+	/**
+	 * Code the row (or column) table of a state.
+	 *
+	 * @param state packed state
+	 * @param byRow true for rows/vertical moves, false for columns
+	 * @return count of goal line g in line l at bits 3*(l*lines+g), blank's line on top
+	 */
+	private long code(long state, boolean byRow)
+	{
+		int cols= puzzle.getCols();
+		int lines= byRow ? puzzle.getRows() : cols;
+		long code= 0;
+		for (int i=0; i<puzzle.size(); i++) {
+			int t= puzzle.tile(state,i);
+			if (t==puzzle.getBlank())
+				code|= (long) (byRow ? i/cols : i%cols) << (3*lines*lines);
+			else if (byRow)
+				code+= 1L << (3*((i/cols)*lines + home[t]/cols));
+			else
+				code+= 1L << (3*((i%cols)*lines + home[t]%cols));
+		}
+		return code;
+	}
+
+
+	private static int lookup(long [] codes, byte [] moves, long code)
+	{
+		return moves[Arrays.binarySearch(codes,code)];
+	}
+
+
+	/**
+	 * Breadth-first search over tables of lines x goal lines.
+	 *
+	 * @param lines number of lines (rows for vertical moves)
+	 * @param width cells per line
+	 * @param blank line the blank ends in
+	 * @return moves needed for every reachable table code
+	 */
+	private static HashMap<Long,Integer> search(int lines, int width, int blank)
+	{
+		HashMap<Long,Integer> moves= new HashMap<Long,Integer>();
+		ArrayDeque<Long> queue= new ArrayDeque<Long>();
+		int top= 3*lines*lines;
+
+		// every line full of its own tiles, but for the blank's
+		long goal= (long) blank << top;
+		for (int g=0; g<lines; g++)
+			goal+= (long) (g==blank ? width-1 : width) << (3*(g*lines+g));
+		moves.put(goal,0);
+		queue.add(goal);
+
+		while (!queue.isEmpty()) {
+			long code= queue.remove();
+			int b= (int) (code >>> top);
+			int d= moves.get(code);
+			for (int nb= b-1; nb<=b+1; nb+= 2) {
+				if (nb < 0 || nb >= lines)
+					continue;
+				for (int g=0; g<lines; g++) {
+					if (((code >>> (3*(nb*lines+g))) & 7)==0)
+						continue;
+					// a tile headed for line g crosses from line nb into the blank's line b
+					long next= code - (1L << (3*(nb*lines+g))) + (1L << (3*(b*lines+g)));
+					next= next & ~(7L << top) | (long) nb << top;
+					if (!moves.containsKey(next)) {
+						moves.put(next,d+1);
+						queue.add(next);
+					}
+				}
+			}
+		}
+		return moves;
+	}
+
+
+	private static long [] sortedKeys(HashMap<Long,Integer> moves)
+	{
+		long [] codes= new long[moves.size()];
+		int i= 0;
+		for (long code : moves.keySet())
+			codes[i++]= code;
+		Arrays.sort(codes);
+		return codes;
+	}
+
+
+	private static byte [] values(long [] codes, HashMap<Long,Integer> moves)
+	{
+		byte [] values= new byte[codes.length];
+		for (int i=0; i<codes.length; i++)
+			values[i]= (byte) (int) moves.get(codes[i]);
+		return values;
+	}
+}
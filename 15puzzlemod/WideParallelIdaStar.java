@@ -0,0 +1,124 @@
+/**
+ * ParallelIdaStar for boards of two-word states, up to the 24-puzzle.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>ForkJoinIdaStar splits each pass the same way; below the split, each
+ * task searches its subtree depth-first, sliding tiles in a WidePuzzle's
+ * two words as WideSolver's IDA* does.</p>
+ */
+public class WideParallelIdaStar extends ForkJoinIdaStar
+{
+	private WidePuzzle puzzle;   // layout, goal and heuristic
+
+	/**
+	 * Set up a search.
+	 *
+	 * @param puzzle puzzle the start boards belong to
+	 * @param threads number of workers, or 0 for one per processor
+	 */
+	public WideParallelIdaStar(WidePuzzle puzzle, int threads)
+	{
+		super(threads);
+		this.puzzle= puzzle;
+	}
+
+
+	/**
+	 * Search from a board until an optimal solution is found.
+	 *
+	 * @param lo low word of the start state
+	 * @param hi high word of the start state
+	 * @return directions from the start, or null if there is no solution
+	 * or the search was stopped
+	 */
+	public String search(long lo, long hi) throws InterruptedException
+	{
+		int h= puzzle.estimate(lo,hi);
+		int bpos= puzzle.blankPosition(lo,hi);
+		return run(h,() -> new WideSubtree(lo,hi,h,bpos,-1,0));
+	}
+
+
+	/**
+	 * The part of a pass below one two-word state.
+	 */
+	@SuppressWarnings("serial")
+	private class WideSubtree extends Subtree
+	{
+		private long lo,hi;   // board at the top of the subtree
+
+		WideSubtree(long lo, long hi, int h, int bpos, int last, int g)
+		{
+			super(h,bpos,last,g);
+			this.lo= lo;
+			this.hi= hi;
+		}
+
+
+		@Override
+		protected boolean atGoal()
+		{
+			return puzzle.isGoal(lo,hi);
+		}
+
+
+		@Override
+		protected int successors()
+		{
+			return puzzle.successors(bpos,last);
+		}
+
+
+		@Override
+		protected Subtree child(int move)
+		{
+			int target= puzzle.target(bpos,move);
+			int tile= puzzle.tile(lo,hi,target);
+			int d= tile ^ puzzle.getBlank();
+			return new WideSubtree(puzzle.slideLo(lo,d,bpos,target),puzzle.slideHi(hi,d,bpos,target),
+				puzzle.update(h,tile,target,bpos),target,move,g+1);
+		}
+
+
+		@Override
+		protected int search()
+		{
+			return dfs(lo,hi,h,bpos,last,g);
+		}
+
+
+		/**
+		 * Bounded depth-first search, as in WideSolver's IDA*.
+		 *
+		 * @return smallest f beyond bound, or anything once quit is set
+		 */
+		private int dfs(long lo, long hi, int h, int bpos, int last, int g)
+		{
+			int f= g+h;
+			if (f > bound || stopping())
+				return f;
+			if (puzzle.isGoal(lo,hi)) {
+				found(g);
+				return f;
+			}
+
+			int min= Integer.MAX_VALUE;
+			for (int moves= puzzle.successors(bpos,last); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				int target= puzzle.target(bpos,move);
+				int tile= puzzle.tile(lo,hi,target);
+				int d= tile ^ puzzle.getBlank();
+				generated++;
+				path[g]= Puzzle.MOVES.charAt(move);
+				int t= dfs(puzzle.slideLo(lo,d,bpos,target),puzzle.slideHi(hi,d,bpos,target),
+					puzzle.update(h,tile,target,bpos),target,move,g+1);
+				if (quit)
+					return t;
+				min= Math.min(min,t);
+			}
+			return min;
+		}
+	}
+}
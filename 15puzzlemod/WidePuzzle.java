@@ -0,0 +1,293 @@
+/**
+ * Describes a puzzle of up to 25 cells, whose states take two longs.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Each cell but the last gets 5 bits: cells 0-11 in the low word and
+ * cells 12-23 in the high word, cell 0 (or 12) in the low bits. The last
+ * cell is not stored, since it holds whichever tile the others do not, so
+ * the 24-puzzle fits in 120 bits. The tile numbered rows*cols-1 is the
+ * blank and the goal is tile i in cell i, as in Puzzle.</p>
+ *
+ * <p>A move only ever changes two cells, by xor'ing each with (tile ^
+ * blank). For each cell a unit per word holds a 1 at the cell's lowest bit
+ * in the word it lives in and 0 in the other, so the new words are
+ * lo ^ d*(loUnit[a]^loUnit[b]) and the same for hi: no branches, and the
+ * unstored cell's units are simply 0. Where the blank goes for each cell
+ * and move, and every tile's Manhattan distance from every cell, are
+ * worked out once in tables.</p>
+ */
+public class WidePuzzle
+{
+	public static final int MAX_CELLS= 25; // 24 stored cells of 5 bits, plus one implied
+	private static final int PER_WORD= 12; // cells stored in each long
+
+	private int rows,cols; // board size in rows/cols
+	private int n;         // number of cells
+	private int blank;     // value used for the blank tile
+	private int fold;      // xor of every tile value, to recover the unstored cell
+	private long goalLo,goalHi; // packed goal state
+	private int [] targets;// blank's destination for cell*4+move, -1 if off the board
+	private int [] successors; // legal moves of cell*5+last+1 as a bitmask, less the one undoing last
+	private long [] loUnit;// 1 at each cell's lowest bit in the low word, or 0
+	private long [] hiUnit;// the same for the high word
+	private int [] dist;   // manhattan distance of tile*n+cell from tile's home
+
+	/**
+	 * Constructor based on board dimensions.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 */
+	public WidePuzzle(int rows, int cols)
+	{
+		if (rows < 1 || cols < 1 || rows*cols > MAX_CELLS)
+			throw new IllegalArgumentException("wide boards hold at most "+MAX_CELLS+" cells");
+		this.rows= rows;
+		this.cols= cols;
+		this.n= rows*cols;
+		this.blank= n-1;
+
+		loUnit= new long[n];
+		hiUnit= new long[n];
+		for (int c=0; c<n-1; c++)
+			if (c < PER_WORD)
+				loUnit[c]= 1L << 5*c;
+			else
+				hiUnit[c]= 1L << 5*(c-PER_WORD);
+
+		targets= new int[4*n];
+		successors= new int[5*n];
+		for (int c=0; c<n; c++) {
+			int legal= 0;
+			for (int move=0; move<Puzzle.MOVES.length(); move++) {
+				targets[4*c+move]= neighbour(c,move);
+				if (targets[4*c+move] >= 0)
+					legal|= 1<<move;
+			}
+			successors[5*c]= legal;
+			for (int last=0; last<Puzzle.MOVES.length(); last++)
+				successors[5*c+last+1]= legal & ~(1<<(last^1));
+		}
+
+		dist= new int[n*n];
+		for (int t=0; t<n; t++)
+			for (int c=0; c<n; c++)
+				dist[t*n+c]= t==blank ? 0 : Math.abs(t/cols-c/cols)+Math.abs(t%cols-c%cols);
+
+		char [] home= new char[n];
+		for (int i=0; i<n; i++) {
+			home[i]= (char) i;
+			fold^= i;
+		}
+		goalLo= packLo(home);
+		goalHi= packHi(home);
+	}
+
+
+	/**
+	 * Where the blank goes, worked out the way Puzzle.target does.
+	 */
+	private int neighbour(int bpos, int move)
+	{
+		switch (move) {
+			case 0: return bpos-cols >= 0 ? bpos-cols : -1;
+			case 1: return bpos+cols < n ? bpos+cols : -1;
+			case 2: return (bpos+1)%cols!=0 ? bpos+1 : -1;
+			case 3: return bpos%cols!=0 ? bpos-1 : -1;
+			default: return -1;
+		}
+	}
+
+
+	/**
+	 * Low word of a list of tiles.
+	 *
+	 * @param tiles tile values in cell order
+	 * @return cells 0-11, 5 bits each
+	 */
+	public long packLo(char [] tiles)
+	{
+		if (tiles.length!=n)
+			throw new IllegalArgumentException("expected "+n+" tiles, got "+tiles.length);
+		long lo= 0;
+		for (int i=0; i<n-1; i++)
+			lo|= (tiles[i] & 31L)*loUnit[i];
+		return lo;
+	}
+
+
+	/**
+	 * High word of a list of tiles.
+	 *
+	 * @param tiles tile values in cell order
+	 * @return cells 12-23, 5 bits each
+	 */
+	public long packHi(char [] tiles)
+	{
+		if (tiles.length!=n)
+			throw new IllegalArgumentException("expected "+n+" tiles, got "+tiles.length);
+		long hi= 0;
+		for (int i=0; i<n-1; i++)
+			hi|= (tiles[i] & 31L)*hiUnit[i];
+		return hi;
+	}
+
+
+	/**
+	 * Value of the tile in a given cell of a packed state.
+	 *
+	 * @param lo low word of the state
+	 * @param hi high word of the state
+	 * @param pos cell index
+	 * @return tile value
+	 */
+	public int tile(long lo, long hi, int pos)
+	{
+		if (pos < PER_WORD && pos < n-1)
+			return (int) (lo >>> 5*pos) & 31;
+		if (pos < n-1)
+			return (int) (hi >>> 5*(pos-PER_WORD)) & 31;
+
+		int t= fold; // the last cell holds the one tile not seen elsewhere
+		for (int i=0; i<n-1; i++)
+			t^= tile(lo,hi,i);
+		return t;
+	}
+
+
+	/**
+	 * Low word after the tile at pos slid into the blank cell.
+	 *
+	 * @param lo low word before the move
+	 * @param d tile(pos) ^ blank
+	 * @param bpos cell currently holding the blank
+	 * @param pos cell of the tile being moved
+	 * @return low word after the move
+	 */
+	public long slideLo(long lo, int d, int bpos, int pos)
+	{
+		return lo ^ d*(loUnit[bpos]^loUnit[pos]);
+	}
+
+
+	/**
+	 * High word after the tile at pos slid into the blank cell.
+	 *
+	 * @see #slideLo
+	 */
+	public long slideHi(long hi, int d, int bpos, int pos)
+	{
+		return hi ^ d*(hiUnit[bpos]^hiUnit[pos]);
+	}
+
+
+	/**
+	 * Cell the blank moves to.
+	 *
+	 * @param bpos cell holding the blank
+	 * @param move index into Puzzle.MOVES
+	 * @return destination cell, or -1 if the move leaves the board
+	 */
+	public int target(int bpos, int move)
+	{
+		return targets[4*bpos+move];
+	}
+
+
+	/**
+	 * Moves worth trying from a cell, as in Puzzle.successors.
+	 *
+	 * @param bpos cell holding the blank
+	 * @param last index into Puzzle.MOVES of the move that led here, -1 for none
+	 * @return bit m set for each move m to try
+	 */
+	public int successors(int bpos, int last)
+	{
+		return successors[5*bpos+last+1];
+	}
+
+
+	/**
+	 * Locate the blank in a packed state.
+	 *
+	 * @return cell index holding the blank
+	 */
+	public int blankPosition(long lo, long hi)
+	{
+		for (int i=0; i<n; i++)
+			if (tile(lo,hi,i)==blank)
+				return i;
+		return -1;
+	}
+
+
+	/**
+	 * Sum of the Manhattan distances of every tile from its home.
+	 *
+	 * @return lower bound on moves to the goal
+	 */
+	public int estimate(long lo, long hi)
+	{
+		int h= 0;
+		for (int i=0; i<n; i++)
+			h+= dist[tile(lo,hi,i)*n+i];
+		return h;
+	}
+
+
+	/**
+	 * Estimate after one tile slid, given the estimate before.
+	 *
+	 * @param h estimate before the move
+	 * @param tile tile that moved
+	 * @param from cell the tile left
+	 * @param to cell the tile moved into
+	 * @return estimate after the move
+	 */
+	public int update(int h, int tile, int from, int to)
+	{
+		return h-dist[tile*n+from]+dist[tile*n+to];
+	}
+
+
+	/**
+	 * Whether a packed state is the goal.
+	 */
+	public boolean isGoal(long lo, long hi)
+	{
+		return lo==goalLo && hi==goalHi;
+	}
+
+
+	/**
+	 * Scramble both words of a state for hashing.
+	 *
+	 * @return well-mixed 64-bit hash
+	 */
+	public static long mix(long lo, long hi)
+	{
+		return Puzzle.mix(lo ^ Puzzle.mix(hi));
+	}
+
+
+	/**
+	 * Tiles of a packed state in cell order.
+	 */
+	public int [] unpack(long lo, long hi)
+	{
+		int [] tiles= new int[n];
+		for (int i=0; i<n; i++)
+			tiles[i]= tile(lo,hi,i);
+		return tiles;
+	}
+
+
+	public int getRows() { return rows; }
+	public int getCols() { return cols; }
+	public int size() { return n; }
+	public int getBlank() { return blank; }
+	public long getGoalLo() { return goalLo; }
+	public long getGoalHi() { return goalHi; }
+}
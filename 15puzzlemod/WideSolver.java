@@ -0,0 +1,438 @@
+/**
+ * Solves boards too big for a single packed long, up to the 24-puzzle.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Works like Solver, but every state is the two words of a WidePuzzle
+ * and boards are estimated by Manhattan distance. IDASTAR, the default,
+ * needs memory only in proportion to the solution length, which is what
+ * 24-puzzle searches can afford. ASTAR keeps its nodes in a NodeArena
+ * holding each state's low word, with the high words in an array of their
+ * own, and its closed set in a LongPairSet; it suits boards a few dozen
+ * moves from the goal. PIDASTAR spreads each IDA* pass over several
+ * threads (see WideParallelIdaStar). Other modes are not available.</p>
+ *
+ * <p>Both searches slide tiles in the packed words directly, so they make
+ * no objects per board.</p>
+ *
+ * <p>IDA* can save a Checkpoint as each pass starts and be resumed from
+ * one, as in Solver.</p>
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Scanner;
+
+public class WideSolver
+{
+	private static final int POLL= 1023; // expansions between checks for a stop, less one
+
+	private WidePuzzle puzzle; // dimensions and goal of every board
+	private SearchMode mode;   // ASTAR, IDASTAR or PIDASTAR
+	private int threads;       // parallel IDA* workers, 0 for one per processor
+	private float loadFactor;  // how full A*'s closed set gets before growing
+	private Scanner source;    // source from which we read next board
+	private long lo,hi;        // current starting board, packed
+	private boolean loaded;    // whether lo and hi hold a board
+	private String solution;   // directions to the goal, starting with X
+	private Timer timer;       // track wall-clock time of solution
+	private long states;       // total number of states encountered
+	private long duplicateStates; // number of duplicate states encountered
+	private volatile boolean cancelled; // set by cancel() from any thread
+	private long deadline;     // System.currentTimeMillis() to give up at, 0 for never
+	private SolveStatus stopReason; // why the search was cut short, null if it wasn't
+	private long expansions;   // boards expanded on this board, for polling
+	private char [] path;      // IDA*'s directions so far, indexed by move
+	private long statesBefore,duplicatesBefore; // counts when this board's search began
+	private String checkpointFile; // where IDA* saves its progress, or null
+	private Checkpoint resumed;    // saved search to carry on with the current board, or null
+
+	/**
+	 * Initialize the solver with a choice of search.
+	 *
+	 * @param rows number of rows for each puzzle
+	 * @param cols columns for each puzzle
+	 * @param dataFile input source for board
+	 * @param mode ASTAR, IDASTAR or PIDASTAR
+	 */
+	public WideSolver(int rows, int cols, InputStream dataFile, SearchMode mode)
+	{
+		if (mode!=SearchMode.ASTAR && mode!=SearchMode.IDASTAR && mode!=SearchMode.PIDASTAR)
+			throw new IllegalArgumentException(mode+" is not available on wide boards");
+		this.puzzle= new WidePuzzle(rows,cols);
+		this.mode= mode;
+		this.loadFactor= 0.75f;
+		this.timer= new Timer();
+		this.source= new Scanner(dataFile);
+	}
+
+
+	/**
+	 * Choose how full A*'s closed set may get before it doubles.
+	 *
+	 * @param loadFactor fraction between 0 and 1; higher saves memory, lower probes less
+	 */
+	public void setLoadFactor(float loadFactor)
+	{
+		this.loadFactor= loadFactor;
+	}
+
+
+	/**
+	 * Choose how many threads parallel IDA* searches with.
+	 *
+	 * @param threads number of workers, or 0 for one per processor
+	 */
+	public void setThreads(int threads)
+	{
+		this.threads= threads;
+	}
+
+
+	/**
+	 * Save IDA*'s progress to a file as each pass starts.
+	 *
+	 * @param fileName checkpoint file, or null for none
+	 *
+	 * <p>The file is deleted once the board is solved or proven unsolvable.
+	 * A* and parallel IDA* ignore it.</p>
+	 */
+	public void setCheckpoint(String fileName)
+	{
+		this.checkpointFile= fileName;
+	}
+
+
+	/**
+	 * Make the board an IDA* checkpoint was saved from the current board,
+	 * and have the next solve carry on from its pass.
+	 *
+	 * @param fileName file saved by a solver with our board size
+	 */
+	public void resume(String fileName) throws IOException
+	{
+		Checkpoint saved= Checkpoint.load(fileName);
+		if (saved.getRows()!=puzzle.getRows() || saved.getCols()!=puzzle.getCols())
+			throw new IOException(fileName+" is for "+saved.getRows()+"x"+saved.getCols()+" boards");
+		if (mode!=SearchMode.IDASTAR || saved.getMode()!=SearchMode.IDASTAR)
+			throw new IOException(fileName+" is a checkpoint of "+saved.getMode()+", not "+mode);
+		lo= saved.getLo();
+		hi= saved.getHi();
+		if (!saved.matches(puzzle.getRows(),puzzle.getCols(),SearchMode.IDASTAR,lo,hi,puzzle.estimate(lo,hi)))
+			throw new IOException(fileName+" does not hold a board");
+		loaded= true;
+		resumed= saved;
+	}
+
+
+	/**
+	 * Creates a new board from the input source.
+	 *
+	 * @return true if the next board was read successfully; false otherwise
+	 */
+	public boolean nextBoard()
+	{
+		char [] tiles= new char[puzzle.size()];
+		if (!source.hasNextInt())
+			return false;
+		for (int i=0; i<tiles.length; i++)
+			tiles[i]= (char) source.nextInt();
+		lo= puzzle.packLo(tiles);
+		hi= puzzle.packHi(tiles);
+		loaded= true;
+		resumed= null;
+		return true;
+	}
+
+
+	/**
+	 * Solve the current board, giving up when the budget is spent.
+	 *
+	 * @param budget wall-clock time allowed, or null for no limit
+	 * @return how the search ended, or null if no board is loaded
+	 */
+	public SolveResult solve(Duration budget)
+	{
+		if (!loaded) {
+			System.out.println("No board loaded ... try calling nextBoard() ...");
+			return null;
+		}
+
+		statesBefore= states;
+		duplicatesBefore= duplicateStates;
+		solution= null;
+		cancelled= false;
+		stopReason= null;
+		expansions= 0;
+		deadline= budget==null ? 0 : System.currentTimeMillis()+budget.toMillis();
+		timer.start();
+		if (mode==SearchMode.ASTAR)
+			astar();
+		else if (mode==SearchMode.PIDASTAR)
+			pidastar();
+		else
+			idastar();
+		timer.stop();
+		resumed= null;
+		if (checkpointFile!=null && stopReason==null)
+			try {
+				Files.deleteIfExists(Paths.get(checkpointFile));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+		SolveStatus status= solution!=null ? SolveStatus.SOLVED
+			: stopReason!=null ? stopReason : SolveStatus.NO_SOLUTION;
+		return new SolveResult(status,solution,1.0,states-statesBefore,
+			duplicateStates-duplicatesBefore,timer.milliseconds());
+	}
+
+
+	/**
+	 * Ask the running search to stop; safe to call from any thread.
+	 */
+	public void cancel()
+	{
+		cancelled= true;
+	}
+
+
+	/**
+	 * Display the solution as a list of moves.
+	 */
+	public void display()
+	{
+		System.out.print("Directions to solution: ");
+		for (int i=0; i<solution.length(); i++)
+			System.out.print(solution.charAt(i) + " ");
+	}
+
+
+	/**
+	 * Draw the current board.
+	 */
+	public void displayBoard()
+	{
+		Board.display(puzzle.unpack(lo,hi),puzzle.getCols(),puzzle.getBlank(),0,puzzle.estimate(lo,hi));
+	}
+
+
+	/**
+	 * Represents the current board and its solution, as Solver does.
+	 *
+	 * @return board with stats along with solution (if available)
+	 */
+	@Override
+	public String toString()
+	{
+		if (!loaded) return "No current board";
+		String start= describe(lo,hi,0);
+		if (solution==null)
+			return start;
+		display();
+		System.out.println();
+		int moves= solution.length()-1;
+		return start+" -->\n"+describe(puzzle.getGoalLo(),puzzle.getGoalHi(),moves)
+			+" ("+timer+"; duplicate states: "+duplicateStates+"; states: "+states+")";
+	}
+
+
+	/**
+	 * Concise representation of a board, in Board.toString's format.
+	 */
+	private String describe(long lo, long hi, int g)
+	{
+		int h= puzzle.estimate(lo,hi);
+		StringBuilder sb= new StringBuilder("(");
+		for (int i=0; i<puzzle.size(); i++)
+			sb.append(i==0 ? "" : " ").append(puzzle.tile(lo,hi,i));
+		return String.format(sb+" | f:%2d, g:%2d, h:%2d)",g+h,g,h);
+	}
+
+
+	/**
+	 * Performs A* search.
+	 *
+	 * <p>A node's index goes on the open list, and the state is
+	 * only added to the closed set once it is expanded. A state can be
+	 * pushed again before then; manhattan distance is consistent, so the
+	 * first copy popped is the cheapest and later ones are skipped.</p>
+	 */
+	private void astar()
+	{
+		NodeArena nodes= new NodeArena(1<<16);
+		long [] highs= new long[1<<16]; // high word of each node's state
+		IntBucketQueue open= new IntBucketQueue(TieBreak.HIGH_G);
+		LongPairSet closed= new LongPairSet(1<<16,loadFactor);
+		int root= nodes.add(lo,NodeArena.NO_PARENT,0,puzzle.estimate(lo,hi),puzzle.blankPosition(lo,hi),0);
+		highs[root]= hi;
+		open.push(root,nodes.f(root),0);
+
+		while (!open.isEmpty()) {
+			int curr= open.pop();
+			if ((++expansions & POLL)==0 && stopping())
+				return;
+			long clo= nodes.state(curr), chi= highs[curr];
+			if (!closed.add(clo,chi))
+				continue; // a copy of this state was expanded already
+			if (puzzle.isGoal(clo,chi)) {
+				solution= nodes.path(curr,'X');
+				return;
+			}
+
+			int g= nodes.g(curr)+1;
+			int h= nodes.h(curr);
+			int bpos= nodes.blank(curr);
+			for (int moves= puzzle.successors(bpos,curr==root ? -1 : nodes.move(curr)); moves!=0; moves&= moves-1) {
+				int move= Integer.numberOfTrailingZeros(moves);
+				int target= puzzle.target(bpos,move);
+
+				int tile= puzzle.tile(clo,chi,target);
+				int d= tile ^ puzzle.getBlank();
+				long nlo= puzzle.slideLo(clo,d,bpos,target), nhi= puzzle.slideHi(chi,d,bpos,target);
+				states++;
+				if (closed.contains(nlo,nhi)) {
+					duplicateStates++;
+					continue;
+				}
+				int child= nodes.add(nlo,curr,g,puzzle.update(h,tile,target,bpos),target,move);
+				if (child==highs.length)
+					highs= Arrays.copyOf(highs,2*child);
+				highs[child]= nhi;
+				open.push(child,nodes.f(child),g);
+			}
+		}
+	}
+
+
+	/**
+	 * Performs IDA* search, passing the two words of each state down the
+	 * recursion instead of moving a board back and forth.
+	 */
+	private void idastar()
+	{
+		int h= puzzle.estimate(lo,hi);
+		int bpos= puzzle.blankPosition(lo,hi);
+		int bound= h;
+		int passes= 0;
+		if (resumed!=null) {
+			states+= resumed.getStates();
+			duplicateStates+= resumed.getDuplicates();
+			expansions= resumed.getExpansions();
+			bound= resumed.getBound();
+			passes= resumed.getPasses();
+		}
+
+		while (solution==null && stopReason==null && bound!=Integer.MAX_VALUE) {
+			if (checkpointFile!=null)
+				save(bound,passes);
+			passes++;
+			path= new char[bound+1];
+			bound= dfs(lo,hi,h,bpos,-1,0,bound);
+		}
+	}
+
+
+	/**
+	 * Performs IDA* search with each pass split over several threads.
+	 */
+	private void pidastar()
+	{
+		WideParallelIdaStar search= new WideParallelIdaStar(puzzle,threads);
+		search.setStop(this::stopping);
+		try {
+			String moves= search.search(lo,hi);
+			if (moves!=null)
+				solution= "X"+moves;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopReason= SolveStatus.CANCELLED;
+		}
+		finally {
+			states+= search.getStates();
+		}
+	}
+
+
+	/**
+	 * Write a checkpoint of IDA* about to start a pass.
+	 */
+	private void save(int bound, int passes)
+	{
+		Checkpoint c= new Checkpoint(puzzle.getRows(),puzzle.getCols(),SearchMode.IDASTAR,lo,hi,puzzle.estimate(lo,hi));
+		c.setCounts(states-statesBefore,duplicateStates-duplicatesBefore,expansions);
+		c.setPass(bound,passes);
+		try {
+			c.save(checkpointFile);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+
+	/**
+	 * One bounded depth-first pass of IDA*.
+	 *
+	 * @param lo low word of the state
+	 * @param hi high word of the state
+	 * @param h estimate for the state
+	 * @param bpos cell holding the blank
+	 * @param last move that led here, -1 for the start
+	 * @param g moves from the start
+	 * @param bound largest f we may expand this pass
+	 * @return smallest f beyond bound (or the solution's f if found)
+	 */
+	private int dfs(long lo, long hi, int h, int bpos, int last, int g, int bound)
+	{
+		int f= g+h;
+		if (f > bound)
+			return f;
+		if ((++expansions & POLL)==0 && stopping())
+			return f;
+		if (puzzle.isGoal(lo,hi)) {
+			solution= "X"+new String(path,0,g);
+			return f;
+		}
+
+		int min= Integer.MAX_VALUE;
+		for (int moves= puzzle.successors(bpos,last); moves!=0; moves&= moves-1) {
+			int move= Integer.numberOfTrailingZeros(moves);
+			int target= puzzle.target(bpos,move);
+
+			int tile= puzzle.tile(lo,hi,target);
+			int d= tile ^ puzzle.getBlank();
+			states++;
+			path[g]= Puzzle.MOVES.charAt(move);
+			int t= dfs(puzzle.slideLo(lo,d,bpos,target),puzzle.slideHi(hi,d,bpos,target),
+				puzzle.update(h,tile,target,bpos),target,move,g+1,bound);
+			if (solution!=null || stopReason!=null)
+				return t;
+			if (t < min)
+				min= t;
+		}
+		return min;
+	}
+
+
+	/**
+	 * Whether the search should give up, noting why.
+	 */
+	private boolean stopping()
+	{
+		if (stopReason==null) {
+			if (cancelled || Thread.currentThread().isInterrupted())
+				stopReason= SolveStatus.CANCELLED;
+			else if (deadline!=0 && System.currentTimeMillis() >= deadline)
+				stopReason= SolveStatus.TIMED_OUT;
+		}
+		return stopReason!=null;
+	}
+}
@@ -8,13 +8,14 @@
 
 public class Board implements Comparable<Board>
 {
-	private int rows,cols; // board size in rows/cols
-	private char [] tiles; // the actual tiles and their locations
+	private Puzzle puzzle; // shared board size and goal
+	private long state;    // packed tiles, one nibble per cell
 	private char dir;      // direction prev used to get here
 	private int  bpos;     // position of blank element
 	private Board prev;    // pointer to previous state
 	private int	h;         // heuristic value (manhattan distance)
 	private int	g;         // cost so far
+	private int slot;      // place in an OpenList's heap, while queued
 
 
 	/**
@@ -30,10 +31,21 @@ public class Board implements Comparable<Board>
 	 */
 	public Board(char [] tiles, int rows, int cols)
 	{
-		this.rows= rows;
-		this.cols= cols;
-		this.tiles= tiles.clone();
-		this.bpos= new String(tiles).indexOf((char) rows*cols-1);
+		this(tiles,new Puzzle(rows,cols));
+	}
+
+
+	/**
+	 * Constructor based on starting tile positions and a shared puzzle.
+	 *
+	 * @param tiles an array of tile positions
+	 * @param puzzle dimensions and goal shared by all boards being solved
+	 */
+	public Board(char [] tiles, Puzzle puzzle)
+	{
+		this.puzzle= puzzle;
+		this.state= puzzle.pack(tiles);
+		this.bpos= puzzle.blankPosition(state);
 		this.dir= 'X';       // initially direction is not valid
 		this.prev= null;     // and no previous board
 		this.h= manhattan(); // use manhattan distance to estimate position
@@ -45,20 +57,22 @@ public class Board implements Comparable<Board>
 	 * Constructor linking to previous board and direction moved to get to
 	 * this board.
 	 *
+	 * @param puzzle dimensions and goal shared with previous board
 	 * @param lastBoard pointer to previous board
-	 * @param tiles array of tile positions
+	 * @param state packed tile positions
+	 * @param bpos position of the blank in state
+	 * @param h manhattan distance of state
 	 * @param direction direction moved from previous board
 	 * @param steps number of steps taken since start of board
 	 */
-	public Board(Board lastBoard, char []tiles, char direction, int steps)
+	private Board(Puzzle puzzle, Board lastBoard, long state, int bpos, int h, char direction, int steps)
 	{
-		this.rows= lastBoard.rows;
-		this.cols= lastBoard.cols;
-		this.tiles= tiles.clone();
-		this.bpos= new String(tiles).indexOf((char) rows*cols-1);
+		this.puzzle= puzzle;
+		this.state= state;
+		this.bpos= bpos;
 		this.dir= direction;      
 		this.prev= lastBoard;     
-		this.h= manhattan(); // use manhattan distance to estimate position
+		this.h= h;           // worked out by movePiece from our parent's h
 		this.g= steps+1;           
 	}
 
@@ -85,16 +99,15 @@ public class Board implements Comparable<Board>
 	 *
 	 * @return manhattan distance
 	 *
-	 * <p>We calculate distance for all tiles and then subtract back out the
-	 * distance added by the blank tile.</p>
+	 * <p>Only used for a starting board; the per-tile distances come from
+	 * the puzzle's table, which already counts the blank as zero.</p>
 	 */
 	private int manhattan()
 	{
 		int i,n,h= 0;
-		n= rows*cols;
+		n= puzzle.size();
 		for (i=0; i<n; i++)
-				h+= Math.abs(i/cols-tiles[i]/cols) + Math.abs(i%cols-tiles[i]%cols);
-		h-= (n-1)/cols-bpos/cols + (n-1)%cols-bpos%cols;
+			h+= puzzle.distance(puzzle.tile(state,i),i);
 
 		return h;
 	}
@@ -113,13 +126,19 @@ public class Board implements Comparable<Board>
 	 */
 	public boolean canMove(char trydir)
 	{
-		switch (trydir) {
-			case 'U': return dir!='D' && bpos-cols >= 0;
-			case 'D': return dir!='U' && bpos+cols < rows*cols;
-			case 'R': return dir!='L' && (bpos+1)%cols!=0; //(bpos+1)/rows==(bpos/rows);
-			case 'L': return dir!='R' && bpos%cols!=0; //bpos>0 && (bpos-1)/rows==(bpos/rows);
-			default: return false;
-		}
+		int move= Puzzle.MOVES.indexOf(trydir);
+		return move >= 0 && (legalMoves() & 1<<move)!=0;
+	}
+
+
+	/**
+	 * Every move canMove allows, at once.
+	 *
+	 * @return bit m set if the direction Puzzle.MOVES.charAt(m) is possible
+	 */
+	public int legalMoves()
+	{
+		return puzzle.successors(bpos,Puzzle.MOVES.indexOf(dir));
 	}
 
 	/**
@@ -128,40 +147,81 @@ public class Board implements Comparable<Board>
 	 * @param direction Directions possible: U, D. R, or L. 
 	 * @return Board new that links to previous. 
 	 *
+	 * <p>The new board shares our puzzle and only differs by the two
+	 * nibbles touched by the move, so no tile array is copied. Only the
+	 * moved tile changes distance, so h is our h plus that tile's delta.</p>
 	 */
 	
 	public Board movePiece(char direction, int steps){
-		Board newBoard;
-		char[]newtiles = this.tiles.clone();
-		switch (direction){
-			case 'U': 
-					//swap "blank" with tile above.
-					newtiles[bpos-cols]=this.tiles[bpos];
-					newtiles[bpos]=this.tiles[bpos-cols];
-				break;
-
-			case 'D': 
-					//swap "blank" with tile below.
-					newtiles[bpos+cols]=this.tiles[bpos];
-					newtiles[bpos]=this.tiles[bpos+cols];
-				break;
-		
-			case 'L': 
-					//swap "blank" with tile to left.
-					newtiles[bpos-1]=this.tiles[bpos];
-					newtiles[bpos]=this.tiles[bpos-1];
-				break;
-
-			case 'R': 
-					//swap "blank" with tile to right.
-					newtiles[bpos+1]=this.tiles[bpos];
-					newtiles[bpos]=this.tiles[bpos+1];
-				break;
-		}
+		int target= neighbour(direction);
+		int tile= puzzle.tile(state,target);
+		int newh= h - puzzle.distance(tile,target) + puzzle.distance(tile,bpos);
+
+		return new Board(puzzle, this, puzzle.slide(state,bpos,target), target, newh, direction, steps);
+	}
+
+
+	/**
+	 * Slide the blank in place instead of building a new board.
+	 *
+	 * @param direction Directions possible: U, D, R, or L; assumed valid.
+	 *
+	 * <p>Lets a depth-first search walk a single board; unmakeMove steps
+	 * back to where we were.</p>
+	 */
+	public void makeMove(char direction)
+	{
+		slideTo(neighbour(direction));
+		dir= direction;
+		g++;
+	}
+
+
+	/**
+	 * Take back the last makeMove.
+	 *
+	 * @param previous direction that got us to the board we return to
+	 */
+	public void unmakeMove(char previous)
+	{
+		int move= Puzzle.MOVES.indexOf(dir);
+		if (move >= 0)
+			slideTo(puzzle.target(bpos,move^1));
+		dir= previous;
+		g--;
+	}
+
+
+	/**
+	 * Copy of this board without its history.
+	 *
+	 * @return unlinked board with the same tiles, direction, g and h
+	 */
+	public Board snapshot()
+	{
+		return new Board(puzzle, null, state, bpos, h, dir, g-1);
+	}
 
-		newBoard = new Board(this, newtiles, direction, steps);
 
-		return newBoard;
+	/**
+	 * Cell the blank moves to in a given direction.
+	 */
+	private int neighbour(char direction)
+	{
+		int move= Puzzle.MOVES.indexOf(direction);
+		return move < 0 ? bpos : puzzle.target(bpos,move);
+	}
+
+
+	/**
+	 * Move the blank to pos in place, keeping h up to date.
+	 */
+	private void slideTo(int pos)
+	{
+		int tile= puzzle.tile(state,pos);
+		h+= puzzle.distance(tile,bpos) - puzzle.distance(tile,pos);
+		state= puzzle.slide(state,bpos,pos);
+		bpos= pos;
 	}
 
 
@@ -182,6 +242,15 @@ public class Board implements Comparable<Board>
 		return g;
 	}
 
+	/**
+	 * Getter for estimated total cost, f = g + h.
+	 */
+	public int getCost()
+	{
+		return g+h;
+	}
+
+
 	/**
 	 * Getter for direction used.
 	 */
@@ -197,7 +266,34 @@ public class Board implements Comparable<Board>
 	 */
 	public boolean isGoal()
 	{
-		return h==0;
+		return state==puzzle.getGoal();
+	}
+
+
+	/**
+	 * Getter for packed tile positions.
+	 */
+	public long getState()
+	{
+		return state;
+	}
+
+
+	/**
+	 * Getter for our place in the OpenList heap holding us.
+	 */
+	public int getSlot()
+	{
+		return slot;
+	}
+
+
+	/**
+	 * Setter used by OpenList as it moves us within its heap.
+	 */
+	public void setSlot(int slot)
+	{
+		this.slot= slot;
 	}
 
 
@@ -209,9 +305,9 @@ public class Board implements Comparable<Board>
 	@Override
 	public String toString()
 	{
-		String str="("+(int)tiles[0];
-		for (int i=1; i<tiles.length; i++)
-			str+= " "+(int)tiles[i];
+		String str="("+puzzle.tile(state,0);
+		for (int i=1; i<puzzle.size(); i++)
+			str+= " "+puzzle.tile(state,i);
 		return String.format(str+" | f:%2d, g:%2d, h:%2d)",g+h,g,h);
 	}
 
@@ -221,17 +317,20 @@ public class Board implements Comparable<Board>
 	 */
 	public void display()
 	{
-		int i,j;
+		int i,j,t;
+		int rows= puzzle.getRows(), cols= puzzle.getCols();
 		System.out.println("+----+----+----+----+");
 		System.out.printf("| f=%3d g=%3d h=%3d |\n",h+g,g,h);
 		for (i=0; i<rows; i++) {
 			System.out.println("+----+----+----+----+");
 			System.out.printf("| ");
-			for (j=0; j<cols; j++)
-				if (tiles[i*cols+j]==rows*cols-1)  // if blank
+			for (j=0; j<cols; j++) {
+				t= puzzle.tile(state,i*cols+j);
+				if (t==puzzle.getBlank())  // if blank
 					System.out.printf("%2s | ",' ');
 				else
-					System.out.printf("%2d | ",(int)tiles[i*cols+j]);
+					System.out.printf("%2d | ",t);
+			}
 			System.out.println();
 		}
 		System.out.println("+----+----+----+----+\n");
@@ -5,13 +5,18 @@
  * @version Spring 2016
  *
  * To test this, compile and then: java Driver < quickcases.in
+ * Pick a search by name if you like: java Driver idastar < largecases.in
 */
 
 public class Driver
 {
 	public static void main(String [] args)
 	{
-		Solver solver= new Solver(4,4,System.in);
+		SearchMode mode= SearchMode.ASTAR;
+		if (args.length > 0)
+			mode= SearchMode.valueOf(args[0].toUpperCase());
+
+		Solver solver= new Solver(4,4,System.in,mode);
 		while (solver.nextBoard()) {
 			solver.solve();
 			System.out.println(solver);
@@ -0,0 +1,113 @@
+/**
+ * Map from packed states to ints using open addressing with linear probing.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Keys and values sit in parallel arrays, so nothing is boxed. Zero
+ * marks an empty key slot; no board of two or more cells packs to zero.
+ * Keys are never removed.</p>
+ */
+public class LongIntMap
+{
+	private long [] keys;    // key slots, 0 if empty
+	private int [] values;   // value for the key in the same slot
+	private int size;        // keys in the map
+	private int mask;        // keys.length-1
+	private int limit;       // grow when size passes this
+
+	/**
+	 * Create an empty map.
+	 *
+	 * @param capacity initial number of slots, a power of two
+	 */
+	public LongIntMap(int capacity)
+	{
+		allocate(capacity);
+	}
+
+
+	/**
+	 * Look up a key.
+	 *
+	 * @param key nonzero key to look for
+	 * @param missing value to return if the key is absent
+	 * @return the key's value, or missing
+	 */
+	public int get(long key, int missing)
+	{
+		int i= home(key);
+		while (keys[i]!=0) {
+			if (keys[i]==key)
+				return values[i];
+			i= (i+1) & mask;
+		}
+		return missing;
+	}
+
+
+	/**
+	 * Set a key's value, adding the key if need be.
+	 *
+	 * @param key nonzero key to set
+	 * @param value its new value
+	 */
+	public void put(long key, int value)
+	{
+		int i= home(key);
+		while (keys[i]!=0) {
+			if (keys[i]==key) {
+				values[i]= value;
+				return;
+			}
+			i= (i+1) & mask;
+		}
+		keys[i]= key;
+		values[i]= value;
+		if (++size > limit)
+			grow();
+	}
+
+
+	/**
+	 * Slot a key's probe starts at, after mixing its bits (SplitMix64's
+	 * finaliser), since neighbouring states differ in only a few nibbles.
+	 */
+	private int home(long key)
+	{
+		key= (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+		key= (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+		return (int) (key ^ (key >>> 31)) & mask;
+	}
+
+
+	/**
+	 * Double the table and reinsert every entry.
+	 */
+	private void grow()
+	{
+		long [] oldKeys= keys;
+		int [] oldValues= values;
+		int oldSize= size;
+		allocate(oldKeys.length*2);
+		size= oldSize;
+		for (int j=0; j<oldKeys.length; j++)
+			if (oldKeys[j]!=0) {
+				int i= home(oldKeys[j]);
+				while (keys[i]!=0)
+					i= (i+1) & mask;
+				keys[i]= oldKeys[j];
+				values[i]= oldValues[j];
+			}
+	}
+
+
+	private void allocate(int capacity)
+	{
+		keys= new long[capacity];
+		values= new int[capacity];
+		mask= capacity-1;
+		limit= capacity/4*3;
+		size= 0;
+	}
+}
@@ -0,0 +1,155 @@
+/**
+ * Priority queue of boards that holds at most one board per state.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>A binary heap ordered like PriorityQueue (Board.compareTo). Each
+ * queued board is also filed under a handle, and a primitive map takes its
+ * state to that handle, so a board reached again is looked up without
+ * boxing its state. Boards keep their own place in the heap up to date
+ * (Board.getSlot), so sifting never touches the map. The queued board for
+ * a state is the cheapest way to it found so far, so a board reached again
+ * can be compared with it in constant time, and a cheaper one takes its
+ * place and moves up the heap (decrease-key) instead of being queued
+ * twice.</p>
+ *
+ * <p>A removed board's state stays in the map, marked closed, so the same
+ * lookup also serves as A*'s closed set.</p>
+ */
+import java.util.Arrays;
+
+public class OpenList
+{
+	private static final int ABSENT= -1; // not a handle
+	private static final int CLOSED= -2; // handle of a state already removed
+
+	private Board [] heap;    // heap[0] is the lowest f
+	private int size;         // boards in the heap
+	private LongIntMap index; // state -> handle of its queued board, or CLOSED
+	private Board [] boards;  // queued board under each handle, null if free
+	private int [] free;      // handles given back by remove
+	private int freeCount;    // how many of free are in use
+	private int handles;      // handles handed out so far
+
+	/**
+	 * Create an empty open list.
+	 */
+	public OpenList()
+	{
+		heap= new Board[1024];
+		index= new LongIntMap(1<<11);
+		boards= new Board[1024];
+		free= new int[1024];
+	}
+
+
+	/**
+	 * Add a board whose state is not queued yet.
+	 *
+	 * @param b board to queue
+	 */
+	public void add(Board b)
+	{
+		int h;
+		if (freeCount > 0)
+			h= free[--freeCount];
+		else {
+			if (handles==boards.length)
+				boards= Arrays.copyOf(boards,2*handles);
+			h= handles++;
+		}
+		boards[h]= b;
+		index.put(b.getState(),h);
+
+		if (size==heap.length)
+			heap= Arrays.copyOf(heap,2*size);
+		heap[size]= b;
+		up(size++);
+	}
+
+
+	/**
+	 * Remove a board of lowest f.
+	 *
+	 * @return the board, or null if the list is empty
+	 */
+	public Board remove()
+	{
+		if (size==0)
+			return null;
+		Board top= heap[0];
+		int h= index.get(top.getState(),ABSENT);
+		index.put(top.getState(),CLOSED);
+		boards[h]= null;
+		if (freeCount==free.length)
+			free= Arrays.copyOf(free,2*freeCount);
+		free[freeCount++]= h;
+
+		heap[0]= heap[--size];
+		heap[size]= null;
+		if (size > 0)
+			down(0);
+		return top;
+	}
+
+
+	/**
+	 * Queue a board unless its state has been removed already or is queued
+	 * at no greater cost. A cheaper board takes the queued one's place.
+	 *
+	 * @param b board to offer
+	 * @return true if b's state was new and b was added; false if it was
+	 * a duplicate, whether or not it replaced the queued board
+	 */
+	public boolean offer(Board b)
+	{
+		int h= index.get(b.getState(),ABSENT);
+		if (h==ABSENT) {
+			add(b);
+			return true;
+		}
+		if (h!=CLOSED && b.getSteps() < boards[h].getSteps()) {
+			int i= boards[h].getSlot();
+			boards[h]= b;
+			heap[i]= b;
+			up(i);
+		}
+		return false;
+	}
+
+
+	public int size() { return size; }
+	public boolean isEmpty() { return size==0; }
+
+
+	private void up(int i)
+	{
+		Board b= heap[i];
+		while (i > 0 && b.compareTo(heap[(i-1)/2]) < 0) {
+			heap[i]= heap[(i-1)/2];
+			heap[i].setSlot(i);
+			i= (i-1)/2;
+		}
+		heap[i]= b;
+		b.setSlot(i);
+	}
+
+
+	private void down(int i)
+	{
+		Board b= heap[i];
+		while (2*i+1 < size) {
+			int child= 2*i+1;
+			if (child+1 < size && heap[child+1].compareTo(heap[child]) < 0)
+				child++;
+			if (b.compareTo(heap[child]) <= 0)
+				break;
+			heap[i]= heap[child];
+			heap[i].setSlot(i);
+			i= child;
+		}
+		heap[i]= b;
+		b.setSlot(i);
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Describes the puzzle being solved: its dimensions and goal state.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>Every board of a given puzzle shares one Puzzle instead of carrying its
+ * own copy of rows/cols. States are packed into a single long with one
+ * nibble (4 bits) per cell, cell 0 in the low bits, so a board may have at
+ * most 16 cells. The tile numbered rows*cols-1 is the blank. Where the
+ * blank can go from each cell is worked out once into tables, so searches
+ * never divide to find a neighbour.</p>
+ */
+public class Puzzle
+{
+	public static final int MAX_CELLS= 16; // cells that fit in one packed long
+	public static final String MOVES= "UDRL"; // blank moves; index^1 undoes one
+
+	private int rows,cols; // board size in rows/cols
+	private int n;         // number of cells
+	private int blank;     // value used for the blank tile
+	private long goal;     // packed goal state
+	private int [] dist;   // manhattan distance of tile t at cell p: dist[t*n+p]
+	private int [] targets;    // blank's destination for cell*4+move, -1 if off the board
+	private int [] successors; // legal moves of cell*5+last+1 as a bitmask, less the one undoing last
+
+	/**
+	 * Constructor based on board dimensions.
+	 *
+	 * @param rows number of rows on the board
+	 * @param cols number of columns on the board
+	 */
+	public Puzzle(int rows, int cols)
+	{
+		if (rows < 1 || cols < 1 || rows*cols > MAX_CELLS)
+			throw new IllegalArgumentException("packed boards hold at most "+MAX_CELLS+" cells");
+		this.rows= rows;
+		this.cols= cols;
+		this.n= rows*cols;
+		this.blank= n-1;
+		this.goal= 0;
+		for (int i=0; i<n; i++)
+			goal|= (long) i << (i<<2);
+
+		// the blank's row stays zero so it never counts toward the distance
+		this.dist= new int[n*n];
+		for (int t=0; t<blank; t++)
+			for (int p=0; p<n; p++)
+				dist[t*n+p]= Math.abs(p/cols-t/cols) + Math.abs(p%cols-t%cols);
+
+		targets= new int[4*n];
+		successors= new int[5*n];
+		for (int c=0; c<n; c++) {
+			int legal= 0;
+			for (int move=0; move<MOVES.length(); move++) {
+				targets[4*c+move]= neighbour(c,move);
+				if (targets[4*c+move] >= 0)
+					legal|= 1<<move;
+			}
+			successors[5*c]= legal;
+			for (int last=0; last<MOVES.length(); last++)
+				successors[5*c+last+1]= legal & ~(1<<(last^1));
+		}
+	}
+
+
+	/**
+	 * Where the blank goes, worked out once per cell for the tables.
+	 */
+	private int neighbour(int bpos, int move)
+	{
+		switch (move) {
+			case 0: return bpos-cols >= 0 ? bpos-cols : -1;
+			case 1: return bpos+cols < n ? bpos+cols : -1;
+			case 2: return (bpos+1)%cols!=0 ? bpos+1 : -1;
+			case 3: return bpos%cols!=0 ? bpos-1 : -1;
+			default: return -1;
+		}
+	}
+
+
+	/**
+	 * Pack a list of tiles into a single long.
+	 *
+	 * @param tiles tile values in cell order
+	 * @return packed state
+	 */
+	public long pack(char [] tiles)
+	{
+		long state= 0;
+		if (tiles.length!=n)
+			throw new IllegalArgumentException("expected "+n+" tiles, got "+tiles.length);
+		for (int i=0; i<n; i++)
+			state|= (long) (tiles[i] & 0xF) << (i<<2);
+		return state;
+	}
+
+
+	/**
+	 * Value of the tile in a given cell of a packed state.
+	 *
+	 * @param state packed state
+	 * @param pos cell index
+	 * @return tile value
+	 */
+	public int tile(long state, int pos)
+	{
+		return (int) (state >>> (pos<<2)) & 0xF;
+	}
+
+
+	/**
+	 * Manhattan distance of a tile from its goal cell.
+	 *
+	 * @param tile tile value
+	 * @param pos cell the tile occupies
+	 * @return distance in moves (always 0 for the blank)
+	 */
+	public int distance(int tile, int pos)
+	{
+		return dist[tile*n+pos];
+	}
+
+
+	/**
+	 * Locate the blank in a packed state.
+	 *
+	 * @param state packed state
+	 * @return cell index holding the blank
+	 */
+	public int blankPosition(long state)
+	{
+		for (int i=0; i<n; i++)
+			if (tile(state,i)==blank)
+				return i;
+		return -1;
+	}
+
+
+	/**
+	 * Cell the blank moves to.
+	 *
+	 * @param bpos cell holding the blank
+	 * @param move index into MOVES
+	 * @return destination cell, or -1 if the move leaves the board
+	 */
+	public int target(int bpos, int move)
+	{
+		return targets[4*bpos+move];
+	}
+
+
+	/**
+	 * Moves worth trying from a cell: those that stay on the board, less the
+	 * one that would undo the last.
+	 *
+	 * @param bpos cell holding the blank
+	 * @param last index into MOVES of the move that led here, -1 for none
+	 * @return bit m set for each move m to try
+	 *
+	 * <p>Searches loop over the set bits (lowest first, so in MOVES order)
+	 * instead of testing every direction.</p>
+	 */
+	public int successors(int bpos, int last)
+	{
+		return successors[5*bpos+last+1];
+	}
+
+
+	/**
+	 * Slide the tile at pos into the blank cell.
+	 *
+	 * @param state packed state
+	 * @param bpos cell currently holding the blank
+	 * @param pos cell of the tile being moved
+	 * @return packed state after the move
+	 *
+	 * <p>Both cells are xor'ed with (tile ^ blank), which swaps their
+	 * contents without clearing and refilling either nibble.</p>
+	 */
+	public long slide(long state, int bpos, int pos)
+	{
+		long d= tile(state,pos) ^ blank;
+		return state ^ (d << (bpos<<2)) ^ (d << (pos<<2));
+	}
+
+
+	public int getRows() { return rows; }
+	public int getCols() { return cols; }
+	public int size() { return n; }
+	public int getBlank() { return blank; }
+	public long getGoal() { return goal; }
+}
@@ -0,0 +1,16 @@
+/**
+ * Search strategies a Solver can be built with.
+ *
+ * @author  agent
+ * @version 18 Oct 2026
+ *
+ * <p>ASTAR keeps every generated board, so it needs memory in proportion to
+ * the states it touches. IDASTAR repeats depth-first passes over a single
+ * board with a growing bound on f, so it only needs memory in proportion to
+ * the solution length.</p>
+ */
+public enum SearchMode
+{
+	ASTAR,   // best-first search with open/closed sets
+	IDASTAR  // iterative deepening A*
+}
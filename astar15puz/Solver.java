@@ -4,22 +4,26 @@
  * @author  Alexis Chuah	
  * @version 15 Feb 2016
  *
+ * <p>Can also solve with IDA* (see SearchMode) when A* would run out of
+ * memory.</p>
 */
 import java.util.Scanner;
-import java.util.PriorityQueue;
 import java.util.Stack;
-import java.util.HashSet;
 import java.io.InputStream;
 
 public class Solver
 {
 	private int rows;        // number of rows for boards we are solving
 	private int cols;        // number of cols for boards we are solving
+	private Puzzle puzzle;   // dimensions/goal shared by every board
 	private Board board;     // current starting board
 	private Board solved;    // solved board
+	private String solution; // directions from board to solved, starting with X
+	private SearchMode mode; // which search solve() runs
 	private Scanner source;  // source from which we read next board
 	private Timer timer;     // track wall-clock time of solution
-	private int count;       // number of states we enqueued during solution
+	private long count;      // number of states we enqueued during solution
+	private long duplicates; // generated states that were already queued or expanded
 	private boolean found;
 
 	/**
@@ -30,10 +34,26 @@ public class Solver
 	 * @param dataFile input source for board
 	 */
 	public Solver(int rows, int cols, InputStream dataFile)
+	{
+		this(rows,cols,dataFile,SearchMode.ASTAR);
+	}
+
+
+	/**
+	 * Initialize the solver with a choice of search.
+	 *
+	 * @param rows number of rows for each puzzle
+	 * @param cols columns for each puzzle
+	 * @param dataFile input source for board
+	 * @param mode search used by solve()
+	 */
+	public Solver(int rows, int cols, InputStream dataFile, SearchMode mode)
 	{
 		try {
+			this.mode= mode;
 			this.rows= rows;
 			this.cols= cols;
+			puzzle= new Puzzle(rows,cols);
 			timer= new Timer();
 			source= new Scanner(dataFile);
 		}
@@ -56,7 +76,7 @@ public class Solver
 		if (source.hasNextInt()) {
 			for (int i= 0; i<n; i++)
 				tiles[i]= (char)source.nextInt();
-			board= new Board(tiles,rows,cols);
+			board= new Board(tiles,puzzle);
 			return true;
 		}
 
@@ -72,9 +92,13 @@ public class Solver
 		if (board==null)
 			System.out.println("No board loaded ... try calling nextBoard() ...");
 		else {
+			solved= null;
+			solution= null;
 			timer.start();
-			PriorityQueue<Board> queue = new PriorityQueue<Board>();
-			astar(queue, board);
+			if (mode==SearchMode.IDASTAR)
+				idastar(board);
+			else
+				astar(board);
 			timer.stop();
 		}
 	}
@@ -93,7 +117,7 @@ public class Solver
 		}
 		display();
 		System.out.println();
-		return board.toString()+" -->\n"+solved.toString()+" ("+timer+"; states: "+count+")";
+		return board.toString()+" -->\n"+solved.toString()+" ("+timer+"; duplicate states: "+duplicates+"; states: "+count+")";
 	}
 
 
@@ -104,7 +128,8 @@ public class Solver
 	{
 
 		System.out.print("Directions to solution: ");
-		showSolution(solved);
+		for (int i=0; i<solution.length(); i++)
+			System.out.print(solution.charAt(i) + " ");
 	
 	}
 
@@ -120,40 +145,124 @@ public class Solver
 	}
 
 
+	/**
+	 * Directions taken to reach a board, following its prev links.
+	 *
+	 * @param end last board on the path
+	 * @return one direction per board, starting with X for the first
+	 */
+	private String path(Board end)
+	{
+		StringBuilder sb= new StringBuilder();
+		for (Board b= end; b!=null; b= b.getPrev())
+			sb.append(b.getDir());
+		return sb.reverse().toString();
+	}
+
+
 	/**
 	 * Performs A* search.
 	 *
 	 * @param start Starting board position
+	 *
+	 * <p>A state is never queued twice: a board whose state was expanded
+	 * already, or is queued at no greater cost, is dropped, and a cheaper
+	 * one replaces the queued board (see OpenList). Both count as
+	 * duplicates rather than states.</p>
 	 */
-	private void astar(PriorityQueue<Board> queue, Board start)
+	private void astar(Board start)
 	{
+		OpenList queue = new OpenList();
 		Board curr;
 		Board next;
 		queue.add(start);
 		int steps;
 		found = false;
-		String moves = "UDRL";
 
 		while(!queue.isEmpty() && !found){
 			curr = queue.remove();
 			steps = curr.getSteps();
 
-			for (int i=0; i<moves.length(); i++){
-				char dir = moves.charAt(i);
+			for (int moves = curr.legalMoves(); moves!=0; moves &= moves-1){
+				char dir = Puzzle.MOVES.charAt(Integer.numberOfTrailingZeros(moves));
+				next = curr.movePiece(dir, steps);
 
-				if(curr.canMove(dir)){
-					next = curr.movePiece(dir, steps);
-					
-					if(next.isGoal()){
-						found=true;
-						solved=next;
-						return;
-					}
+				if(next.isGoal()){
+					found=true;
+					solved=next;
+					solution=path(next);
+					return;
+				}
 
-					queue.add(next);
+				if(queue.offer(next))
 					count++;
-				}
+				else
+					duplicates++;
 			}
 		}	
 	}
+
+
+	/**
+	 * Performs IDA* search.
+	 *
+	 * @param start Starting board position
+	 *
+	 * <p>Each pass is a depth-first search that moves a single copy of the
+	 * start board back and forth, cutting off any path whose f exceeds the
+	 * bound. The next bound is the smallest f that was cut off, so the
+	 * first solution found is optimal.</p>
+	 */
+	private void idastar(Board start)
+	{
+		Board curr= start.snapshot();
+		int bound= curr.getCost();
+		char [] path;
+		found= false;
+
+		while (!found && bound!=Integer.MAX_VALUE) {
+			path= new char[bound+2];
+			path[0]= curr.getDir();
+			bound= dfs(curr,bound,path);
+			if (found)
+				solution= new String(path,0,solved.getSteps()+1);
+		}
+	}
+
+
+	/**
+	 * One bounded depth-first pass of IDA*.
+	 *
+	 * @param curr board we move around in place
+	 * @param bound largest f we may expand this pass
+	 * @param path directions taken so far, indexed by step
+	 * @return smallest f beyond bound (or the solution's f if found)
+	 */
+	private int dfs(Board curr, int bound, char [] path)
+	{
+		int f= curr.getCost();
+		if (f > bound)
+			return f;
+		if (curr.isGoal()) {
+			found= true;
+			solved= curr.snapshot();
+			return f;
+		}
+
+		int min= Integer.MAX_VALUE;
+		char last= curr.getDir();
+		for (int moves= curr.legalMoves(); moves!=0; moves&= moves-1) {
+			char dir= Puzzle.MOVES.charAt(Integer.numberOfTrailingZeros(moves));
+			curr.makeMove(dir);
+			count++;
+			path[curr.getSteps()]= dir;
+			int t= dfs(curr,bound,path);
+			curr.unmakeMove(last);
+			if (found)
+				return t;
+			if (t < min)
+				min= t;
+		}
+		return min;
+	}
 }